@@ -37,7 +37,7 @@ import AuthComponent from './components/AuthComponent';
 import Dashboard from './components/Dashboard';
 import AlertsComponent from './components/AlertsComponent';
 import TrendingStocks from './components/TrendingStocks';
-import { authService, alertService } from './services/api';
+import { authService, alertService, streamService } from './services/api';
 
 const theme = createTheme({
   palette: {
@@ -126,6 +126,15 @@ const App: React.FC = () => {
     };
   }, []);
 
+  // The stream pushes the count whenever it changes, so it is not polled
+  useEffect(() => {
+    if (!user) {
+      return;
+    }
+    const source = streamService.connect({ onUnreadCount: setUnreadCount });
+    return () => source?.close();
+  }, [user]);
+
   const loadUnreadCount = async () => {
     try {
       const count = await alertService.getUnreadCount();
@@ -273,6 +273,11 @@ const Dashboard: React.FC = () => {
                             <Typography variant="h5" fontWeight="bold">
                               {stock.symbol}
                             </Typography>
+                            {stock.currentPrice != null && (
+                              <Typography variant="body2" color="text.secondary">
+                                ${stock.currentPrice}
+                              </Typography>
+                            )}
                             <Chip
                               label={stock.active ? 'Active' : 'Inactive'}
                               color={stock.active ? 'success' : 'default'}
@@ -5,7 +5,8 @@ import {
   RegisterRequest,
   WatchedStock,
   WatchedStockRequest,
-  Alert
+  Alert,
+  StockQuote
 } from '../types';
 
 const API_BASE_URL = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
@@ -106,3 +107,38 @@ export const alertService = {
     await api.put('/alerts/mark-read', alertIds);
   }
 };
+
+export interface StreamHandlers {
+  onUnreadCount?: (count: number) => void;
+  onAlert?: (alert: Alert) => void;
+  onResync?: () => void;
+}
+
+export const streamService = {
+  // EventSource cannot send the Authorization header, so the token goes in the query string.
+  // The browser reconnects on its own and resumes from the last alert id.
+  connect: (handlers: StreamHandlers): EventSource | null => {
+    const token = localStorage.getItem('token');
+    if (!token) {
+      return null;
+    }
+    const source = new EventSource(`${API_BASE_URL}/stream?access_token=${encodeURIComponent(token)}`);
+    source.addEventListener('unread-count', (event) => {
+      handlers.onUnreadCount?.(Number((event as MessageEvent).data));
+    });
+    source.addEventListener('alert', (event) => {
+      handlers.onAlert?.(JSON.parse((event as MessageEvent).data));
+    });
+    source.addEventListener('resync', () => handlers.onResync?.());
+    return source;
+  }
+};
+
+export const quoteService = {
+  getQuotes: async (symbols: string[]): Promise<StockQuote[]> => {
+    const response: AxiosResponse<StockQuote[]> = await api.get('/quotes', {
+      params: { symbols: symbols.join(',') }
+    });
+    return response.data;
+  }
+};
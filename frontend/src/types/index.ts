@@ -29,6 +29,8 @@ export interface WatchedStock {
   maxPrice?: number;
   createdAt: string;
   active: boolean;
+  currentPrice?: number;
+  priceUpdatedAt?: string;
 }
 
 export interface WatchedStockRequest {
@@ -47,6 +49,12 @@ export interface Alert {
   read: boolean;
 }
 
+export interface StockQuote {
+  symbol: string;
+  price: number;
+  timestamp: string;
+}
+
 export interface ApiError {
   message: string;
   status: number;
@@ -6,6 +6,8 @@ import io.swagger.v3.oas.annotations.info.Contact;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import io.swagger.v3.oas.annotations.servers.Server;
+import org.example.security.CurrentUserId;
+import org.springdoc.core.utils.SpringDocUtils;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
@@ -31,4 +33,9 @@ import org.springframework.context.annotation.Configuration;
     scheme = "bearer"
 )
 public class OpenApiConfig {
+
+    static {
+        // Filled from the token, not a request parameter
+        SpringDocUtils.getConfig().addAnnotationsToIgnore(CurrentUserId.class);
+    }
 }
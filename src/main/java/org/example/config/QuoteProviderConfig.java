@@ -0,0 +1,69 @@
+package org.example.config;
+
+import org.example.service.AlphaVantageQuoteProvider;
+import org.example.service.MockQuoteProvider;
+import org.example.service.QuoteProvider;
+import org.example.service.RecordingQuoteProvider;
+import org.example.service.ReplayQuoteProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class QuoteProviderConfig {
+
+    @Value("${stock.quote.provider:alphavantage}")
+    private String provider;
+
+    @Value("${stock.api.base-url}")
+    private String apiBaseUrl;
+
+    @Value("${stock.api.key}")
+    private String apiKey;
+
+    // Symbols per bulk request; 1 disables bulk quotes and uses one GLOBAL_QUOTE call per symbol
+    @Value("${stock.api.batch-size:1}")
+    private int batchSize;
+
+    @Value("${stock.api.request-timeout:10000}")
+    private long requestTimeout;
+
+    @Value("${stock.quote.record.enabled:false}")
+    private boolean recordEnabled;
+
+    @Value("${stock.quote.record.file:data/quotes.csv}")
+    private String recordFile;
+
+    @Value("${stock.quote.replay.file:data/quotes.csv}")
+    private String replayFile;
+
+    // 1 replays at the recorded pace, 60 plays an hour of quotes per minute
+    @Value("${stock.quote.replay.speed:1}")
+    private double replaySpeed;
+
+    @Value("${stock.quote.replay.loop:true}")
+    private boolean replayLoop;
+
+    @Bean
+    public QuoteProvider quoteProvider() {
+        // Recording into the file being replayed would feed replayed quotes back into the recording
+        if (recordEnabled && "replay".equals(provider)
+                && Path.of(recordFile).toAbsolutePath().normalize().equals(Path.of(replayFile).toAbsolutePath().normalize())) {
+            throw new IllegalStateException("stock.quote.record.file must differ from stock.quote.replay.file: " + recordFile);
+        }
+
+        QuoteProvider quoteProvider = switch (provider) {
+            case "alphavantage" -> new AlphaVantageQuoteProvider(apiBaseUrl, apiKey, batchSize, requestTimeout);
+            case "mock" -> new MockQuoteProvider();
+            case "replay" -> new ReplayQuoteProvider(Path.of(replayFile), replaySpeed, replayLoop);
+            default -> throw new IllegalStateException("Unknown quote provider: " + provider);
+        };
+
+        if (recordEnabled) {
+            quoteProvider = new RecordingQuoteProvider(quoteProvider, Path.of(recordFile));
+        }
+        return quoteProvider;
+    }
+}
@@ -3,13 +3,15 @@ package org.example.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.dto.AlertPage;
 import org.example.dto.AlertResponse;
+import org.example.security.CurrentUserId;
 import org.example.service.AlertService;
+import org.example.service.InvalidCursorException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -22,29 +24,51 @@ public class AlertController {
     @Autowired
     private AlertService alertService;
     
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     @GetMapping
-    @Operation(summary = "Get user's alerts with pagination")
+    @Operation(summary = "Get user's alerts, newest first; pass the X-Next-Cursor header value as cursor for the next page")
     public ResponseEntity<List<AlertResponse>> getAlerts(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer page,
             @RequestParam(defaultValue = "20") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        List<AlertResponse> alerts = alertService.getUserAlerts(userDetails, page, size);
-        return ResponseEntity.ok(alerts);
+            @CurrentUserId Long userId,
+            ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, alertService.getAlertsETag(userId))) {
+            return null;
+        }
+        try {
+            AlertPage alerts = page != null && cursor == null
+                    ? alertService.getUserAlerts(userId, page, size)
+                    : alertService.getUserAlerts(userId, cursor, size);
+            return withNextCursor(alerts);
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/unread")
-    @Operation(summary = "Get unread alerts")
+    @Operation(summary = "Get unread alerts, newest first; pass the X-Next-Cursor header value as cursor for the next page")
     public ResponseEntity<List<AlertResponse>> getUnreadAlerts(
-            @AuthenticationPrincipal UserDetails userDetails) {
-        List<AlertResponse> unreadAlerts = alertService.getUnreadAlerts(userDetails);
-        return ResponseEntity.ok(unreadAlerts);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @CurrentUserId Long userId,
+            ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, alertService.getAlertsETag(userId))) {
+            return null;
+        }
+        try {
+            return withNextCursor(alertService.getUnreadAlerts(userId, cursor, size));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/unread/count")
     @Operation(summary = "Get count of unread alerts")
     public ResponseEntity<Long> getUnreadCount(
-            @AuthenticationPrincipal UserDetails userDetails) {
-        long count = alertService.getUnreadCount(userDetails);
+            @CurrentUserId Long userId) {
+        long count = alertService.getUnreadCount(userId);
         return ResponseEntity.ok(count);
     }
     
@@ -52,12 +76,20 @@ public class AlertController {
     @Operation(summary = "Mark alerts as read")
     public ResponseEntity<Void> markAlertsAsRead(
             @RequestBody List<Long> alertIds,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUserId Long userId) {
         try {
-            alertService.markAlertsAsRead(alertIds, userDetails);
+            alertService.markAlertsAsRead(alertIds, userId);
             return ResponseEntity.ok().build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    private ResponseEntity<List<AlertResponse>> withNextCursor(AlertPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getAlerts());
+    }
 }
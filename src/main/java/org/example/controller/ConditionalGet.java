@@ -0,0 +1,22 @@
+package org.example.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+// Tagged responses are private and always revalidated; without an explicit Cache-Control,
+// Spring Security marks them no-store and clients would never send If-None-Match
+final class ConditionalGet {
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalGet() {}
+
+    // Sets the ETag; true when the client's copy is current and the response is already a 304
+    static boolean notModified(ServletWebRequest request, String etag) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(etag);
+    }
+}
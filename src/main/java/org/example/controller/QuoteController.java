@@ -0,0 +1,101 @@
+package org.example.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.dto.PriceHistoryPoint;
+import org.example.dto.StockPriceResponse;
+import org.example.service.HistoryResolution;
+import org.example.security.CurrentUserId;
+import org.example.service.InvalidHistoryRequestException;
+import org.example.service.PriceHistoryDisabledException;
+import org.example.service.PriceHistoryService;
+import org.example.service.Quote;
+import org.example.service.QuoteCache;
+import org.example.service.QuoteLimitExceededException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/quotes")
+@Tag(name = "Quotes", description = "Current and historical stock prices")
+@SecurityRequirement(name = "bearerAuth")
+public class QuoteController {
+
+    private static final int MAX_SYMBOLS = 50;
+
+    @Autowired
+    private QuoteCache quoteCache;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @GetMapping
+    @Operation(summary = "Get current prices for a comma-separated list of symbols; symbols nobody watches are served only if cached")
+    public ResponseEntity<List<StockPriceResponse>> getQuotes(
+            @RequestParam String symbols,
+            @CurrentUserId Long userId) {
+        List<String> requested = Arrays.stream(symbols.split(","))
+                .map(String::trim)
+                .map(String::toUpperCase)
+                .filter(symbol -> !symbol.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+
+        if (requested.isEmpty() || requested.size() > MAX_SYMBOLS
+                || requested.stream().anyMatch(symbol -> !symbol.matches("^[A-Z]{1,5}$"))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<String, Quote> quotes;
+        try {
+            quotes = quoteCache.getQuotesForUser(userId, requested);
+        } catch (QuoteLimitExceededException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        }
+
+        List<StockPriceResponse> response = requested.stream()
+                .filter(quotes::containsKey)
+                .map(quotes::get)
+                .map(quote -> new StockPriceResponse(quote.symbol(), quote.price(), quote.fetchedAt().toString()))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{symbol}/history")
+    @Operation(summary = "Get price history; resolution is tick, 1m, 1h or 1d, from/to default to the last 24 hours")
+    public ResponseEntity<List<PriceHistoryPoint>> getHistory(
+            @PathVariable String symbol,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "1m") String resolution) {
+        String normalized = symbol.trim().toUpperCase();
+        if (!normalized.matches("^[A-Z]{1,5}$")) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+        try {
+            return ResponseEntity.ok(priceHistoryService.getHistory(normalized, start, end,
+                    HistoryResolution.fromCode(resolution)));
+        } catch (InvalidHistoryRequestException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (PriceHistoryDisabledException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
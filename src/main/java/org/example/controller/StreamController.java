@@ -0,0 +1,36 @@
+package org.example.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.security.CurrentUserId;
+import org.example.service.AlertService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stream")
+@Tag(name = "Stream", description = "Server-sent events for alerts, unread counts and prices")
+@SecurityRequirement(name = "bearerAuth")
+public class StreamController {
+
+    @Autowired
+    private AlertService alertService;
+
+    // EventSource cannot set headers, so the token may also be passed as access_token;
+    // browsers resend the last alert id as Last-Event-ID when they reconnect
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Open an event stream of alert, unread-count and price events")
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) Long lastEventId,
+            @CurrentUserId Long userId) {
+        Long resumeFrom = lastEventId;
+        if (resumeFrom == null && lastEventIdHeader != null && lastEventIdHeader.matches("\\d{1,18}")) {
+            resumeFrom = Long.parseLong(lastEventIdHeader);
+        }
+        return alertService.openStream(userId, resumeFrom);
+    }
+}
@@ -4,14 +4,16 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.example.dto.BulkWatchlistResponse;
 import org.example.dto.WatchedStockRequest;
 import org.example.dto.WatchedStockResponse;
+import org.example.security.CurrentUserId;
 import org.example.service.WatchedStockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -25,10 +27,22 @@ public class WatchlistController {
     private WatchedStockService watchedStockService;
 
     @GetMapping
-    @Operation(summary = "Get user's watchlist")
+    @Operation(summary = "Get user's watchlist; send the ETag back in If-None-Match to get 304 while nothing changed")
     public ResponseEntity<List<WatchedStockResponse>> getWatchlist(
-            @AuthenticationPrincipal UserDetails userDetails) {
-        List<WatchedStockResponse> watchlist = watchedStockService.getUserWatchedStocks(userDetails);
+            @CurrentUserId Long userId,
+            ServletWebRequest request) {
+        String etag = watchedStockService.getWatchlistETag(userId);
+        if (etag != null && ConditionalGet.notModified(request, etag)) {
+            return null;
+        }
+
+        List<WatchedStockResponse> watchlist = watchedStockService.getUserWatchedStocks(userId);
+        if (etag == null) {
+            etag = watchedStockService.getWatchlistETag(userId, watchlist);
+            if (etag != null && ConditionalGet.notModified(request, etag)) {
+                return null;
+            }
+        }
         return ResponseEntity.ok(watchlist);
     }
 
@@ -36,23 +50,48 @@ public class WatchlistController {
     @Operation(summary = "Add stock to watchlist")
     public ResponseEntity<WatchedStockResponse> addToWatchlist(
             @Valid @RequestBody WatchedStockRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUserId Long userId) {
         try {
-            WatchedStockResponse response = watchedStockService.addWatchedStock(request, userDetails);
+            WatchedStockResponse response = watchedStockService.addWatchedStock(request, userId);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    // Rows are checked individually; the response reports each one, so it is 200 even when some failed
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Add or update many watched stocks at once")
+    public ResponseEntity<BulkWatchlistResponse> importWatchlist(
+            @RequestBody List<WatchedStockRequest> requests,
+            @CurrentUserId Long userId) {
+        try {
+            return ResponseEntity.ok(watchedStockService.importWatchedStocks(requests, userId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @Operation(summary = "Add or update watched stocks from CSV lines of symbol,minPrice,maxPrice")
+    public ResponseEntity<BulkWatchlistResponse> importWatchlistCsv(
+            @RequestBody String csv,
+            @CurrentUserId Long userId) {
+        try {
+            return ResponseEntity.ok(watchedStockService.importCsv(csv, userId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update watched stock")
     public ResponseEntity<WatchedStockResponse> updateWatchedStock(
             @PathVariable Long id,
             @Valid @RequestBody WatchedStockRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUserId Long userId) {
         try {
-            WatchedStockResponse response = watchedStockService.updateWatchedStock(id, request, userDetails);
+            WatchedStockResponse response = watchedStockService.updateWatchedStock(id, request, userId);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -63,9 +102,9 @@ public class WatchlistController {
     @Operation(summary = "Remove stock from watchlist")
     public ResponseEntity<Void> removeFromWatchlist(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUserId Long userId) {
         try {
-            watchedStockService.deleteWatchedStock(id, userDetails);
+            watchedStockService.deleteWatchedStock(id, userId);
             return ResponseEntity.ok().build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
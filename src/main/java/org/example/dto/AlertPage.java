@@ -0,0 +1,21 @@
+package org.example.dto;
+
+import java.util.List;
+
+public class AlertPage {
+    private List<AlertResponse> alerts;
+    private String nextCursor;
+
+    public AlertPage() {}
+
+    public AlertPage(List<AlertResponse> alerts, String nextCursor) {
+        this.alerts = alerts;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AlertResponse> getAlerts() { return alerts; }
+    public void setAlerts(List<AlertResponse> alerts) { this.alerts = alerts; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
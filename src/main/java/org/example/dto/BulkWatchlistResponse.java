@@ -0,0 +1,35 @@
+package org.example.dto;
+
+import java.util.List;
+
+public class BulkWatchlistResponse {
+    private int created;
+    private int updated;
+    private int failed;
+    private List<BulkWatchlistRowResult> results;
+
+    public BulkWatchlistResponse() {}
+
+    public BulkWatchlistResponse(List<BulkWatchlistRowResult> results) {
+        this.results = results;
+        for (BulkWatchlistRowResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case FAILED -> failed++;
+            }
+        }
+    }
+
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+
+    public int getUpdated() { return updated; }
+    public void setUpdated(int updated) { this.updated = updated; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<BulkWatchlistRowResult> getResults() { return results; }
+    public void setResults(List<BulkWatchlistRowResult> results) { this.results = results; }
+}
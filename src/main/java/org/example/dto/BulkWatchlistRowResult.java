@@ -0,0 +1,43 @@
+package org.example.dto;
+
+public class BulkWatchlistRowResult {
+
+    public enum Status {
+        CREATED, UPDATED, FAILED
+    }
+
+    private int row;
+    private String symbol;
+    private Status status;
+    private Long id;
+    private String error;
+
+    public BulkWatchlistRowResult() {}
+
+    public BulkWatchlistRowResult(int row, String symbol, Status status, Long id, String error) {
+        this.row = row;
+        this.symbol = symbol;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static BulkWatchlistRowResult failed(int row, String symbol, String error) {
+        return new BulkWatchlistRowResult(row, symbol, Status.FAILED, null, error);
+    }
+
+    public int getRow() { return row; }
+    public void setRow(int row) { this.row = row; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
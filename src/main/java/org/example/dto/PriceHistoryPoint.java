@@ -0,0 +1,41 @@
+package org.example.dto;
+
+import java.math.BigDecimal;
+
+public class PriceHistoryPoint {
+    private String timestamp;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private int ticks;
+
+    public PriceHistoryPoint() {}
+
+    public PriceHistoryPoint(String timestamp, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close, int ticks) {
+        this.timestamp = timestamp;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.ticks = ticks;
+    }
+
+    public String getTimestamp() { return timestamp; }
+    public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+
+    public BigDecimal getOpen() { return open; }
+    public void setOpen(BigDecimal open) { this.open = open; }
+
+    public BigDecimal getHigh() { return high; }
+    public void setHigh(BigDecimal high) { this.high = high; }
+
+    public BigDecimal getLow() { return low; }
+    public void setLow(BigDecimal low) { this.low = low; }
+
+    public BigDecimal getClose() { return close; }
+    public void setClose(BigDecimal close) { this.close = close; }
+
+    public int getTicks() { return ticks; }
+    public void setTicks(int ticks) { this.ticks = ticks; }
+}
@@ -0,0 +1,26 @@
+package org.example.dto;
+
+import java.math.BigDecimal;
+
+public class SymbolThresholdBounds {
+    private String symbol;
+    private BigDecimal highestMinPrice;
+    private BigDecimal lowestMaxPrice;
+
+    public SymbolThresholdBounds() {}
+
+    public SymbolThresholdBounds(String symbol, BigDecimal highestMinPrice, BigDecimal lowestMaxPrice) {
+        this.symbol = symbol;
+        this.highestMinPrice = highestMinPrice;
+        this.lowestMaxPrice = lowestMaxPrice;
+    }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public BigDecimal getHighestMinPrice() { return highestMinPrice; }
+    public void setHighestMinPrice(BigDecimal highestMinPrice) { this.highestMinPrice = highestMinPrice; }
+
+    public BigDecimal getLowestMaxPrice() { return lowestMaxPrice; }
+    public void setLowestMaxPrice(BigDecimal lowestMaxPrice) { this.lowestMaxPrice = lowestMaxPrice; }
+}
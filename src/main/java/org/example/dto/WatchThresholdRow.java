@@ -0,0 +1,51 @@
+package org.example.dto;
+
+import java.math.BigDecimal;
+
+public class WatchThresholdRow {
+    private Long watchId;
+    private Long userId;
+    private String symbol;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private boolean minAlertTriggered;
+    private boolean maxAlertTriggered;
+
+    public WatchThresholdRow() {}
+
+    public WatchThresholdRow(Long watchId, Long userId, String symbol, BigDecimal minPrice, BigDecimal maxPrice) {
+        this.watchId = watchId;
+        this.userId = userId;
+        this.symbol = symbol;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public WatchThresholdRow(Long watchId, Long userId, String symbol, BigDecimal minPrice, BigDecimal maxPrice,
+                             boolean minAlertTriggered, boolean maxAlertTriggered) {
+        this(watchId, userId, symbol, minPrice, maxPrice);
+        this.minAlertTriggered = minAlertTriggered;
+        this.maxAlertTriggered = maxAlertTriggered;
+    }
+
+    public Long getWatchId() { return watchId; }
+    public void setWatchId(Long watchId) { this.watchId = watchId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+
+    public boolean isMinAlertTriggered() { return minAlertTriggered; }
+    public void setMinAlertTriggered(boolean minAlertTriggered) { this.minAlertTriggered = minAlertTriggered; }
+
+    public boolean isMaxAlertTriggered() { return maxAlertTriggered; }
+    public void setMaxAlertTriggered(boolean maxAlertTriggered) { this.maxAlertTriggered = maxAlertTriggered; }
+}
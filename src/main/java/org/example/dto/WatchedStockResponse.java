@@ -10,6 +10,8 @@ public class WatchedStockResponse {
     private BigDecimal maxPrice;
     private LocalDateTime createdAt;
     private boolean active;
+    private BigDecimal currentPrice;
+    private LocalDateTime priceUpdatedAt;
 
     public WatchedStockResponse() {}
 
@@ -40,4 +42,10 @@ public class WatchedStockResponse {
 
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
+
+    public BigDecimal getCurrentPrice() { return currentPrice; }
+    public void setCurrentPrice(BigDecimal currentPrice) { this.currentPrice = currentPrice; }
+
+    public LocalDateTime getPriceUpdatedAt() { return priceUpdatedAt; }
+    public void setPriceUpdatedAt(LocalDateTime priceUpdatedAt) { this.priceUpdatedAt = priceUpdatedAt; }
 }
@@ -8,8 +8,10 @@ import java.time.LocalDateTime;
 @Table(name = "alerts")
 public class Alert {
 
+    // Pooled sequence so ids are assigned without a round trip per row and inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "alerts_id_seq")
+    @SequenceGenerator(name = "alerts_id_seq", sequenceName = "alerts_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "current_price", nullable = false)
@@ -1,6 +1,7 @@
 package org.example.entity;
 
 import jakarta.persistence.*;
+import org.example.security.UserChangeListener;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,6 +12,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 public class User implements UserDetails {
 
     @Id
@@ -32,6 +34,10 @@ public class User implements UserDetails {
     @Column(name = "is_enabled")
     private boolean enabled = true;
 
+    // Maintained by UnreadAlertCounter with relative updates; entity writes must not overwrite it
+    @Column(name = "unread_alert_count", nullable = false, updatable = false)
+    private long unreadAlertCount = 0;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<WatchedStock> watchedStocks;
 
@@ -93,6 +99,9 @@ public class User implements UserDetails {
 
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
 
+    public long getUnreadAlertCount() { return unreadAlertCount; }
+    public void setUnreadAlertCount(long unreadAlertCount) { this.unreadAlertCount = unreadAlertCount; }
+
     public List<WatchedStock> getWatchedStocks() { return watchedStocks; }
     public void setWatchedStocks(List<WatchedStock> watchedStocks) { this.watchedStocks = watchedStocks; }
 
@@ -10,7 +10,8 @@ import java.util.List;
 public class WatchedStock {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "watched_stocks_id_seq")
+    @SequenceGenerator(name = "watched_stocks_id_seq", sequenceName = "watched_stocks_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -28,6 +29,13 @@ public class WatchedStock {
     @Column(name = "is_active")
     private boolean active = true;
 
+    // Checkpoint of the in-memory alert state; a triggered side stays silent until re-armed
+    @Column(name = "min_alert_triggered", nullable = false)
+    private boolean minAlertTriggered = false;
+
+    @Column(name = "max_alert_triggered", nullable = false)
+    private boolean maxAlertTriggered = false;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -67,6 +75,12 @@ public class WatchedStock {
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
 
+    public boolean isMinAlertTriggered() { return minAlertTriggered; }
+    public void setMinAlertTriggered(boolean minAlertTriggered) { this.minAlertTriggered = minAlertTriggered; }
+
+    public boolean isMaxAlertTriggered() { return maxAlertTriggered; }
+    public void setMaxAlertTriggered(boolean maxAlertTriggered) { this.maxAlertTriggered = maxAlertTriggered; }
+
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 
@@ -1,8 +1,9 @@
 package org.example.repository;
 
+import org.example.dto.AlertResponse;
 import org.example.entity.Alert;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -13,16 +14,34 @@ import java.util.List;
 
 @Repository
 public interface AlertRepository extends JpaRepository<Alert, Long> {
-    List<Alert> findByUserIdOrderByTriggeredAtDesc(Long userId);
-    Page<Alert> findByUserIdOrderByTriggeredAtDesc(Long userId, Pageable pageable);
-    List<Alert> findByUserIdAndReadFalseOrderByTriggeredAtDesc(Long userId);
+    // Response projections join the symbol in the same statement. Slices fetch one extra row
+    // to detect a next page instead of running a count; the *Before variants seek past a cursor.
+    @Query("SELECT new org.example.dto.AlertResponse(a.id, ws.symbol, a.currentPrice, a.thresholdPrice, " +
+           "a.alertType, a.triggeredAt, a.read) FROM Alert a JOIN a.watchedStock ws " +
+           "WHERE a.user.id = :userId ORDER BY a.triggeredAt DESC, a.id DESC")
+    Slice<AlertResponse> findResponsesByUserId(Long userId, Pageable pageable);
 
-    @Query("SELECT COUNT(a) FROM Alert a WHERE a.user.id = :userId AND a.read = false")
-    long countUnreadByUserId(Long userId);
+    @Query("SELECT new org.example.dto.AlertResponse(a.id, ws.symbol, a.currentPrice, a.thresholdPrice, " +
+           "a.alertType, a.triggeredAt, a.read) FROM Alert a JOIN a.watchedStock ws " +
+           "WHERE a.user.id = :userId " +
+           "AND (a.triggeredAt < :triggeredAt OR (a.triggeredAt = :triggeredAt AND a.id < :id)) " +
+           "ORDER BY a.triggeredAt DESC, a.id DESC")
+    Slice<AlertResponse> findResponsesByUserIdBefore(Long userId, LocalDateTime triggeredAt, Long id, Pageable pageable);
 
-    @Modifying
-    @Query("UPDATE Alert a SET a.read = true WHERE a.user.id = :userId AND a.id IN :alertIds")
-    void markAsRead(Long userId, List<Long> alertIds);
+    @Query("SELECT new org.example.dto.AlertResponse(a.id, ws.symbol, a.currentPrice, a.thresholdPrice, " +
+           "a.alertType, a.triggeredAt, a.read) FROM Alert a JOIN a.watchedStock ws " +
+           "WHERE a.user.id = :userId AND a.read = false ORDER BY a.triggeredAt DESC, a.id DESC")
+    Slice<AlertResponse> findUnreadResponsesByUserId(Long userId, Pageable pageable);
+
+    @Query("SELECT new org.example.dto.AlertResponse(a.id, ws.symbol, a.currentPrice, a.thresholdPrice, " +
+           "a.alertType, a.triggeredAt, a.read) FROM Alert a JOIN a.watchedStock ws " +
+           "WHERE a.user.id = :userId AND a.read = false " +
+           "AND (a.triggeredAt < :triggeredAt OR (a.triggeredAt = :triggeredAt AND a.id < :id)) " +
+           "ORDER BY a.triggeredAt DESC, a.id DESC")
+    Slice<AlertResponse> findUnreadResponsesByUserIdBefore(Long userId, LocalDateTime triggeredAt, Long id, Pageable pageable);
 
-    List<Alert> findByTriggeredAtAfter(LocalDateTime dateTime);
+    // Only unread rows are touched, so the returned count is exactly how many became read
+    @Modifying
+    @Query("UPDATE Alert a SET a.read = true WHERE a.user.id = :userId AND a.id IN :alertIds AND a.read = false")
+    int markAsRead(Long userId, List<Long> alertIds);
 }
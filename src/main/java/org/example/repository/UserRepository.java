@@ -2,6 +2,8 @@ package org.example.repository;
 
 import org.example.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,4 +14,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.unreadAlertCount FROM User u WHERE u.id = :userId")
+    Optional<Long> findUnreadAlertCount(Long userId);
+
+    @Query("SELECT u.email FROM User u WHERE u.id = :userId")
+    Optional<String> findEmailById(Long userId);
+
+    @Modifying
+    @Query("UPDATE User u SET u.unreadAlertCount = u.unreadAlertCount + :delta WHERE u.id = :userId")
+    int addUnreadAlertCount(Long userId, long delta);
 }
@@ -1,22 +1,53 @@
 package org.example.repository;
 
+import org.example.dto.WatchThresholdRow;
+import org.example.dto.WatchedStockResponse;
+import jakarta.persistence.QueryHint;
 import org.example.entity.WatchedStock;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface WatchedStockRepository extends JpaRepository<WatchedStock, Long> {
-    List<WatchedStock> findByUserIdAndActiveTrue(Long userId);
-    List<WatchedStock> findByUserId(Long userId);
+    @Query("SELECT new org.example.dto.WatchedStockResponse(ws.id, ws.symbol, ws.minPrice, ws.maxPrice, ws.createdAt, ws.active) " +
+           "FROM WatchedStock ws WHERE ws.user.id = :userId AND ws.active = true")
+    List<WatchedStockResponse> findActiveResponsesByUserId(Long userId);
 
-    @Query("SELECT DISTINCT ws.symbol FROM WatchedStock ws WHERE ws.active = true")
-    List<String> findAllActiveSymbols();
+    @Query("SELECT ws.symbol FROM WatchedStock ws WHERE ws.user.id = :userId AND ws.active = true")
+    List<String> findActiveSymbolsByUserId(Long userId);
 
-    @Query("SELECT ws FROM WatchedStock ws WHERE ws.active = true")
-    List<WatchedStock> findAllActive();
+    // Read with a server-side cursor and grouped by symbol, so callers can consume it without
+    // holding the whole table; must be consumed inside a transaction and closed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new org.example.dto.WatchThresholdRow(ws.id, ws.user.id, ws.symbol, ws.minPrice, ws.maxPrice) " +
+           "FROM WatchedStock ws WHERE ws.active = true ORDER BY ws.symbol")
+    Stream<WatchThresholdRow> streamAllActiveThresholds();
 
-    boolean existsByUserIdAndSymbol(Long userId, String symbol);
+    @Query("SELECT new org.example.dto.WatchThresholdRow(ws.id, ws.user.id, ws.symbol, ws.minPrice, ws.maxPrice, " +
+           "ws.minAlertTriggered, ws.maxAlertTriggered) FROM WatchedStock ws " +
+           "WHERE ws.active = true AND (ws.minAlertTriggered = true OR ws.maxAlertTriggered = true)")
+    List<WatchThresholdRow> findTriggeredThresholds();
+
+    @Modifying
+    @Query("UPDATE WatchedStock ws SET ws.minAlertTriggered = :minTriggered, ws.maxAlertTriggered = :maxTriggered " +
+           "WHERE ws.id IN :ids")
+    int updateAlertTriggerState(boolean minTriggered, boolean maxTriggered, Collection<Long> ids);
+
+    // Includes an inactive row, which adding the symbol again reactivates
+    Optional<WatchedStock> findByUserIdAndSymbol(Long userId, String symbol);
+
+    // Includes inactive rows: (user_id, symbol) is unique, so a removed symbol is reactivated rather than inserted
+    List<WatchedStock> findByUserIdAndSymbolIn(Long userId, Collection<String> symbols);
 }
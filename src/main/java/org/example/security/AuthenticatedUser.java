@@ -0,0 +1,83 @@
+package org.example.security;
+
+import org.example.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Principal of token-authenticated requests. It carries no password hash or JPA state, so it
+// can be cached across requests or rebuilt from signed token claims.
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final boolean enabled;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String username, boolean enabled, Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.enabled = enabled;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public static AuthenticatedUser from(UserDetails userDetails) {
+        if (userDetails instanceof AuthenticatedUser authenticated) {
+            return authenticated;
+        }
+        return new AuthenticatedUser(idOf(userDetails), userDetails.getUsername(), userDetails.isEnabled(),
+                userDetails.getAuthorities());
+    }
+
+    // Null when the principal does not know its id and the caller has to look it up
+    public static Long idOf(UserDetails userDetails) {
+        if (userDetails instanceof AuthenticatedUser authenticated) {
+            return authenticated.getId();
+        }
+        if (userDetails instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
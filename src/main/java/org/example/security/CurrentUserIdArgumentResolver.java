@@ -0,0 +1,55 @@
+package org.example.security;
+
+import org.example.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+// Resolves @CurrentUserId once per request. Principals set by JwtAuthenticationFilter carry the id;
+// any other UserDetails principal costs a single lookup, remembered on the request.
+@Component
+public class CurrentUserIdArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ATTRIBUTE = CurrentUserIdArgumentResolver.class.getName() + ".userId";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUserId.class) && Long.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Long resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Long userId = (Long) webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (userId == null) {
+            userId = resolve(SecurityContextHolder.getContext().getAuthentication());
+            webRequest.setAttribute(ATTRIBUTE, userId, RequestAttributes.SCOPE_REQUEST);
+        }
+        return userId;
+    }
+
+    private Long resolve(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails userDetails)) {
+            throw new AuthenticationCredentialsNotFoundException("No authenticated user");
+        }
+        Long userId = AuthenticatedUser.idOf(userDetails);
+        if (userId != null) {
+            return userId;
+        }
+        return userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new AuthenticationCredentialsNotFoundException("User not found"))
+                .getId();
+    }
+}
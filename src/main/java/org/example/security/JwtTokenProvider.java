@@ -1,28 +1,54 @@
 package org.example.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 
 @Component
 public class JwtTokenProvider {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ENABLED_CLAIM = "enabled";
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationInMs;
 
+    // Recently verified tokens; 0 verifies every request
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    // Entries also expire with their token, whichever comes first
+    @Value("${jwt.verified-cache.ttl:300000}")
+    private long verifiedCacheTtl;
+
     private SecretKey signingKey;
 
+    private JwtParser parser;
+
+    private Cache<String, Claims> verified;
+
     @PostConstruct
     public void init() {
         // Ensure the secret is at least 32 characters (256 bits) for HMAC-SHA
@@ -34,6 +60,33 @@ public class JwtTokenProvider {
 
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        // Parsers are immutable and thread-safe, so one serves every request
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+        // Keyed by a SHA-256 digest of the token, so live credentials are not kept on the heap
+        this.verified = verifiedCacheMaxSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long ttl = verifiedCacheTtl;
+                        if (claims.getExpiration() != null) {
+                            ttl = Math.min(ttl, claims.getExpiration().getTime() - System.currentTimeMillis());
+                        }
+                        return Duration.ofMillis(Math.max(0, ttl)).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     private SecretKey getSigningKey() {
@@ -45,33 +98,63 @@ public class JwtTokenProvider {
 
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
 
+        // Lets the stateless mode authenticate requests without loading the user
+        List<String> roles = userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
+                .claim(USER_ID_CLAIM, AuthenticatedUser.idOf(userPrincipal))
+                .claim(ENABLED_CLAIM, userPrincipal.isEnabled())
+                .claim(ROLES_CLAIM, roles)
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
                 .signWith(getSigningKey())
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Verifies signature and expiry once and returns the claims, or null for an invalid token.
+    // A token seen recently is answered from the cache without checking the signature again.
+    public Claims verify(String token) {
+        String key = verified != null ? digest(token) : null;
+        if (key != null) {
+            Claims claims = verified.getIfPresent(key);
+            if (claims != null) {
+                return claims;
+            }
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
 
-        return claims.getSubject();
+        if (key != null) {
+            verified.put(key, claims);
+        }
+        return claims;
     }
 
-    public boolean validateToken(String authToken) {
+    private static String digest(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(authToken);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
+
+    // Null for tokens issued without the principal claims
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        Boolean enabled = claims.get(ENABLED_CLAIM, Boolean.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || enabled == null || roles == null) {
+            return null;
+        }
+
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), enabled,
+                roles.stream().map(role -> new SimpleGrantedAuthority(role.toString())).toList());
+    }
 }
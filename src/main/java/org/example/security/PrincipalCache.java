@@ -0,0 +1,53 @@
+package org.example.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Principals of recently authenticated users, so a request with a valid token does not reload the
+// user. Entries are evicted when the user row changes (see UserChangeListener); the TTL bounds how
+// long a change made outside JPA, e.g. by hand in SQL, can go unnoticed.
+@Component
+public class PrincipalCache {
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.principal-cache.ttl:60000}")
+    private long ttl;
+
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<String, AuthenticatedUser> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    // Unknown usernames throw and are not cached
+    public AuthenticatedUser get(String username) {
+        return cache.get(username, name -> AuthenticatedUser.from(userDetailsService.loadUserByUsername(name)));
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+}
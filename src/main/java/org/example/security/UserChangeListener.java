@@ -0,0 +1,33 @@
+package org.example.security;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.entity.User;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Drops the cached principal when a user is updated (disabled, password changed) or deleted.
+// It is evicted again after commit, since a request in between may have cached the old row.
+public class UserChangeListener {
+
+    // Resolved lazily: the cache depends on the repositories, which are built after entity listeners
+    @Autowired
+    private ObjectProvider<PrincipalCache> principalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        String username = user.getUsername();
+        principalCache.ifAvailable(cache -> cache.evict(username));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.ifAvailable(cache -> cache.evict(username));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import org.example.dto.SymbolThresholdBounds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class AdaptivePollScheduler {
+
+    private static final double VOLATILITY_SMOOTHING = 0.2;
+
+    @Value("${stock.monitor.adaptive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${stock.api.fetch-interval}")
+    private long baseInterval;
+
+    @Value("${stock.monitor.adaptive.min-interval:60000}")
+    private long minInterval;
+
+    @Value("${stock.monitor.tick-interval:${stock.api.fetch-interval}}")
+    private long tickInterval;
+
+    @Value("${stock.monitor.adaptive.max-interval:1800000}")
+    private long maxInterval;
+
+    // How many times more often than the expected time-to-threshold a symbol is polled
+    @Value("${stock.monitor.adaptive.safety-factor:4}")
+    private double safetyFactor;
+
+    private final Map<String, SymbolState> states = new ConcurrentHashMap<>();
+
+    // Symbols are only checked once per monitoring tick, so a longer tick would silently raise the minimum
+    @PostConstruct
+    public void init() {
+        if (enabled && tickInterval > minInterval) {
+            throw new IllegalStateException(String.format(
+                    "stock.monitor.tick-interval (%d ms) must not exceed stock.monitor.adaptive.min-interval (%d ms) when adaptive polling is enabled",
+                    tickInterval, minInterval));
+        }
+    }
+
+    public List<SymbolThresholdBounds> dueSymbols(List<SymbolThresholdBounds> bounds, long now) {
+        if (!enabled) {
+            return bounds;
+        }
+
+        Set<String> active = new HashSet<>();
+        List<SymbolThresholdBounds> due = new ArrayList<>();
+
+        for (SymbolThresholdBounds symbolBounds : bounds) {
+            active.add(symbolBounds.getSymbol());
+            SymbolState state = states.computeIfAbsent(symbolBounds.getSymbol(), symbol -> new SymbolState());
+
+            synchronized (state) {
+                // A user moving a threshold invalidates the back-off computed for the old one
+                if (thresholdsChanged(state.bounds, symbolBounds)) {
+                    state.nextPollAt = 0;
+                }
+                state.bounds = symbolBounds;
+                if (state.nextPollAt <= now) {
+                    due.add(symbolBounds);
+                }
+            }
+        }
+
+        states.keySet().retainAll(active);
+        return due;
+    }
+
+    // sampledAt is when the provider produced the price; a cached quote seen again adds no volatility sample
+    public void recordPrice(String symbol, BigDecimal price, long sampledAt, long now) {
+        if (!enabled || price == null || price.signum() <= 0) {
+            return;
+        }
+
+        SymbolState state = states.computeIfAbsent(symbol, key -> new SymbolState());
+        synchronized (state) {
+            double current = price.doubleValue();
+
+            if (state.lastPrice == 0 || sampledAt > state.lastSampledAt) {
+                if (state.lastPrice > 0) {
+                    double logReturn = Math.log(current / state.lastPrice);
+                    double variancePerMs = logReturn * logReturn / (sampledAt - state.lastSampledAt);
+                    state.variancePerMs = state.samples == 0
+                            ? variancePerMs
+                            : VOLATILITY_SMOOTHING * variancePerMs + (1 - VOLATILITY_SMOOTHING) * state.variancePerMs;
+                    state.samples++;
+                }
+                state.lastPrice = current;
+                state.lastSampledAt = sampledAt;
+            }
+
+            state.nextPollAt = now + nextInterval(state, price);
+        }
+    }
+
+    private long nextInterval(SymbolState state, BigDecimal price) {
+        if (state.bounds == null || state.samples == 0) {
+            return baseInterval;
+        }
+
+        double distance = QuoteRequestScheduler.distanceToThreshold(price, state.bounds);
+        if (distance == Double.MAX_VALUE) {
+            return maxInterval;
+        }
+
+        double sigmaPerBaseInterval = Math.sqrt(state.variancePerMs * baseInterval);
+        if (sigmaPerBaseInterval == 0) {
+            return distance == 0 ? minInterval : maxInterval;
+        }
+
+        // For a random walk the expected time to move z standard deviations grows with z squared
+        double z = distance / sigmaPerBaseInterval;
+        double interval = baseInterval * z * z / safetyFactor;
+
+        return (long) Math.max(minInterval, Math.min(maxInterval, interval));
+    }
+
+    private boolean thresholdsChanged(SymbolThresholdBounds previous, SymbolThresholdBounds current) {
+        return previous != null
+                && (!Objects.equals(previous.getHighestMinPrice(), current.getHighestMinPrice())
+                    || !Objects.equals(previous.getLowestMaxPrice(), current.getLowestMaxPrice()));
+    }
+
+    private static final class SymbolState {
+        private SymbolThresholdBounds bounds;
+        private double lastPrice;
+        private long lastSampledAt;
+        private long nextPollAt;
+        private double variancePerMs;
+        private int samples;
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Collects the alerts of one monitoring cycle so they can be written in batches
+// instead of one insert per triggered threshold. Safe to fill from several threads.
+public class AlertBuffer {
+
+    private final ConcurrentLinkedQueue<TriggeredAlert> pending = new ConcurrentLinkedQueue<>();
+
+    public void add(TriggeredAlert alert) {
+        pending.add(alert);
+    }
+
+    public List<TriggeredAlert> drain() {
+        List<TriggeredAlert> drained = new ArrayList<>();
+        TriggeredAlert alert;
+        while ((alert = pending.poll()) != null) {
+            drained.add(alert);
+        }
+        return drained;
+    }
+}
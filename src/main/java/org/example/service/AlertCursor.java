@@ -0,0 +1,25 @@
+package org.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Position after the last alert of a page; alerts are ordered by (triggeredAt, id) descending
+public record AlertCursor(LocalDateTime triggeredAt, long id) {
+
+    public String encode() {
+        String raw = triggeredAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AlertCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new AlertCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                   Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
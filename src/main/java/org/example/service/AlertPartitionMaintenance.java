@@ -0,0 +1,201 @@
+package org.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// On PostgreSQL, alerts is range-partitioned by month (see V4) with a default partition (V8). This job
+// creates the upcoming partitions ahead of time, moves rows that landed in the default partition into
+// their month, and drops or detaches the ones past retention.
+// Unpartitioned databases (the H2 dev profile) fall back to deleting expired rows in small batches.
+@Component
+public class AlertPartitionMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertPartitionMaintenance.class);
+
+    private static final String PARTITION_PREFIX = "alerts_p";
+    private static final String DEFAULT_PARTITION = "alerts_default";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UnreadAlertCounter unreadAlertCounter;
+
+    @Autowired
+    private UserDataVersions userDataVersions;
+
+    // Months of alerts to keep; 0 (the default) keeps everything
+    @Value("${stock.alert.retention.months:0}")
+    private int retentionMonths;
+
+    // "drop" removes expired partitions, "detach" keeps them as standalone tables for archiving
+    @Value("${stock.alert.retention.mode:drop}")
+    private String retentionMode;
+
+    @Value("${stock.alert.retention.premake-months:3}")
+    private int premakeMonths;
+
+    @Value("${stock.alert.retention.delete-batch-size:5000}")
+    private int deleteBatchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${stock.alert.retention.cron:0 15 3 * * *}")
+    public void maintain() {
+        try {
+            if (isPartitioned()) {
+                createUpcomingPartitions(YearMonth.now());
+                expirePartitions(YearMonth.now());
+            } else {
+                deleteExpiredRows(LocalDate.now());
+            }
+        } catch (Exception e) {
+            logger.error("Alert retention maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean isPartitioned() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            return false;
+        }
+        Integer partitioned = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                "WHERE c.relname = 'alerts' AND pg_table_is_visible(c.oid)", Integer.class);
+        return partitioned != null && partitioned > 0;
+    }
+
+    private void createUpcomingPartitions(YearMonth current) {
+        for (int i = 0; i <= premakeMonths; i++) {
+            createPartition(current.plusMonths(i));
+        }
+
+        List<LocalDateTime> stray = jdbcTemplate.queryForList(
+                "SELECT DISTINCT date_trunc('month', triggered_at) FROM " + DEFAULT_PARTITION, LocalDateTime.class);
+        if (!stray.isEmpty()) {
+            logger.error("Found alerts in {} for months {}, moving them into monthly partitions",
+                    DEFAULT_PARTITION, stray.stream().map(YearMonth::from).toList());
+            stray.forEach(month -> createPartition(YearMonth.from(month)));
+        }
+    }
+
+    // A range partition cannot be added while the default partition holds rows in its range,
+    // so those rows are moved into the new table before it is attached
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition)) {
+            return;
+        }
+
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE alerts INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                    " WHERE triggered_at >= ? AND triggered_at < ? RETURNING *) INSERT INTO " + partition +
+                    " SELECT * FROM moved", from, to);
+            jdbcTemplate.execute(String.format("ALTER TABLE alerts ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partition, from.toLocalDate(), to.toLocalDate()));
+            if (moved > 0) {
+                logger.info("Moved {} alerts from {} into {}", moved, DEFAULT_PARTITION, partition);
+            }
+        });
+    }
+
+    private void expirePartitions(YearMonth current) {
+        if (retentionMonths <= 0) {
+            return;
+        }
+
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT child.relname FROM pg_inherits i " +
+                "JOIN pg_class parent ON parent.oid = i.inhparent " +
+                "JOIN pg_class child ON child.oid = i.inhrelid " +
+                "WHERE parent.relname = 'alerts' AND pg_table_is_visible(parent.oid)", String.class);
+
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        boolean detach = "detach".equalsIgnoreCase(retentionMode);
+        boolean expired = false;
+
+        for (String partition : partitions) {
+            YearMonth month = partitionMonth(partition);
+            if (month == null || !month.isBefore(oldestKept)) {
+                continue;
+            }
+            jdbcTemplate.execute(detach
+                    ? "ALTER TABLE alerts DETACH PARTITION " + partition
+                    : "DROP TABLE " + partition);
+            logger.info("{} expired alert partition {}", detach ? "Detached" : "Dropped", partition);
+            expired = true;
+        }
+
+        if (expired) {
+            alertsRemoved();
+        }
+    }
+
+    // Small batches keep each delete short so it never holds locks for long
+    private void deleteExpiredRows(LocalDate today) {
+        if (retentionMonths <= 0) {
+            return;
+        }
+
+        LocalDateTime cutoff = today.withDayOfMonth(1).minusMonths(retentionMonths).atStartOfDay();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(
+                    "DELETE FROM alerts WHERE id IN (SELECT id FROM alerts WHERE triggered_at < ? LIMIT ?)",
+                    cutoff, deleteBatchSize);
+            total += deleted;
+        } while (deleted == deleteBatchSize);
+
+        if (total > 0) {
+            logger.info("Deleted {} alerts triggered before {}", total, cutoff);
+            alertsRemoved();
+        }
+    }
+
+    private void alertsRemoved() {
+        unreadAlertCounter.reconcile();
+        userDataVersions.allAlertsChanged();
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    static YearMonth partitionMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
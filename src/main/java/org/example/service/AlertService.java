@@ -1,84 +1,207 @@
 package org.example.service;
 
+import org.example.dto.AlertPage;
 import org.example.dto.AlertResponse;
 import org.example.entity.Alert;
-import org.example.entity.User;
-import org.example.entity.WatchedStock;
 import org.example.repository.AlertRepository;
 import org.example.repository.UserRepository;
+import org.example.repository.WatchedStockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class AlertService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AlertService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private AlertRepository alertRepository;
 
     @Autowired
     private UserRepository userRepository;
 
-    public void createAlert(BigDecimal currentPrice, BigDecimal thresholdPrice, Alert.AlertType alertType,
-                           User user, WatchedStock watchedStock) {
-        Alert alert = new Alert(currentPrice, thresholdPrice, alertType, user, watchedStock);
-        alertRepository.save(alert);
+    @Autowired
+    private WatchedStockRepository watchedStockRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UnreadAlertCounter unreadAlertCounter;
+
+    @Autowired
+    private EventStreamHub eventStreamHub;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private UserDataVersions userDataVersions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${stock.alert.flush-chunk-size:1000}")
+    private int flushChunkSize;
+
+    // Persists in chunks, one transaction each, so Hibernate can send JDBC batches;
+    // a failed chunk is logged and does not stop the remaining ones. Each chunk's
+    // notifications are queued in the same transaction, and committed alerts are
+    // pushed to the owners' event streams. Returns the alerts that were not saved.
+    public List<TriggeredAlert> saveBatch(List<TriggeredAlert> alerts) {
+        List<TriggeredAlert> failed = new ArrayList<>();
+
+        for (int from = 0; from < alerts.size(); from += flushChunkSize) {
+            List<TriggeredAlert> chunk = alerts.subList(from, Math.min(from + flushChunkSize, alerts.size()));
+            long startedAt = System.nanoTime();
+            Map<Long, List<AlertResponse>> byUser = new HashMap<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Alert> entities = toEntities(chunk);
+                    alertRepository.saveAll(entities);
+                    unreadAlertCounter.alertsCreated(countByUser(chunk));
+                    byUser.putAll(toResponses(chunk, entities));
+                    notificationOutbox.enqueue(byUser);
+                });
+                meterRegistry.summary("stockwatch.alerts.flush.size").record(chunk.size());
+                byUser.keySet().forEach(userDataVersions::alertsChanged);
+                byUser.forEach(eventStreamHub::publishAlerts);
+            } catch (Exception e) {
+                logger.error("Failed to persist {} alerts: {}", chunk.size(), e.getMessage());
+                failed.addAll(chunk);
+            } finally {
+                meterRegistry.timer("stockwatch.alerts.flush").record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        return failed;
+    }
+
+    // Ids were assigned on persist; everything else comes from the triggered alerts
+    private Map<Long, List<AlertResponse>> toResponses(List<TriggeredAlert> chunk, List<Alert> entities) {
+        Map<Long, List<AlertResponse>> byUser = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            TriggeredAlert triggered = chunk.get(i);
+            byUser.computeIfAbsent(triggered.userId(), id -> new ArrayList<>()).add(new AlertResponse(
+                entities.get(i).getId(), triggered.symbol(), triggered.currentPrice(), triggered.thresholdPrice(),
+                triggered.type(), triggered.triggeredAt(), false));
+        }
+        return byUser;
+    }
+
+    private Map<Long, Integer> countByUser(List<TriggeredAlert> chunk) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (TriggeredAlert triggered : chunk) {
+            counts.merge(triggered.userId(), 1, Integer::sum);
+        }
+        return counts;
     }
 
-    public List<AlertResponse> getUserAlerts(UserDetails userDetails, int page, int size) {
-        User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // References resolve to proxies in the chunk's own session without loading the rows
+    private List<Alert> toEntities(List<TriggeredAlert> chunk) {
+        List<Alert> entities = new ArrayList<>(chunk.size());
+        for (TriggeredAlert triggered : chunk) {
+            Alert alert = new Alert(
+                triggered.currentPrice(),
+                triggered.thresholdPrice(),
+                triggered.type(),
+                userRepository.getReferenceById(triggered.userId()),
+                watchedStockRepository.getReferenceById(triggered.watchId())
+            );
+            alert.setTriggeredAt(triggered.triggeredAt());
+            entities.add(alert);
+        }
+        return entities;
+    }
 
-        Page<Alert> alertPage = alertRepository.findByUserIdOrderByTriggeredAtDesc(
-            user.getId(), PageRequest.of(page, size));
+    // Offset paging, kept for page-number clients; deep pages get slower, prefer the cursor
+    public AlertPage getUserAlerts(Long userId, int page, int size) {
+        Slice<AlertResponse> slice = alertRepository.findResponsesByUserId(
+            userId, PageRequest.of(Math.max(0, page), pageSize(size)));
 
-        return alertPage.getContent().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return toPage(slice);
     }
 
-    public List<AlertResponse> getUnreadAlerts(UserDetails userDetails) {
-        User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public AlertPage getUserAlerts(Long userId, String cursor, int size) {
+        Pageable pageable = PageRequest.of(0, pageSize(size));
 
-        List<Alert> unreadAlerts = alertRepository.findByUserIdAndReadFalseOrderByTriggeredAtDesc(user.getId());
+        Slice<AlertResponse> slice;
+        if (cursor == null || cursor.isEmpty()) {
+            slice = alertRepository.findResponsesByUserId(userId, pageable);
+        } else {
+            AlertCursor after = AlertCursor.decode(cursor);
+            slice = alertRepository.findResponsesByUserIdBefore(userId, after.triggeredAt(), after.id(), pageable);
+        }
 
-        return unreadAlerts.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return toPage(slice);
     }
 
-    public long getUnreadCount(UserDetails userDetails) {
-        User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public AlertPage getUnreadAlerts(Long userId, String cursor, int size) {
+        Pageable pageable = PageRequest.of(0, pageSize(size));
+
+        Slice<AlertResponse> slice;
+        if (cursor == null || cursor.isEmpty()) {
+            slice = alertRepository.findUnreadResponsesByUserId(userId, pageable);
+        } else {
+            AlertCursor after = AlertCursor.decode(cursor);
+            slice = alertRepository.findUnreadResponsesByUserIdBefore(userId, after.triggeredAt(), after.id(), pageable);
+        }
 
-        return alertRepository.countUnreadByUserId(user.getId());
+        return toPage(slice);
     }
 
-    @Transactional
-    public void markAlertsAsRead(List<Long> alertIds, UserDetails userDetails) {
-        User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+    }
 
-        alertRepository.markAsRead(user.getId(), alertIds);
+    private AlertPage toPage(Slice<AlertResponse> slice) {
+        List<AlertResponse> alerts = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !alerts.isEmpty()) {
+            AlertResponse last = alerts.get(alerts.size() - 1);
+            nextCursor = new AlertCursor(last.getTriggeredAt(), last.getId()).encode();
+        }
+        return new AlertPage(alerts, nextCursor);
     }
 
-    private AlertResponse mapToResponse(Alert alert) {
-        return new AlertResponse(
-            alert.getId(),
-            alert.getWatchedStock().getSymbol(),
-            alert.getCurrentPrice(),
-            alert.getThresholdPrice(),
-            alert.getAlertType(),
-            alert.getTriggeredAt(),
-            alert.isRead()
-        );
+    public long getUnreadCount(Long userId) {
+        return unreadAlertCounter.get(userId);
+    }
+
+    // Covers every alert list of the user: new alerts, reads and retention all bump it
+    public String getAlertsETag(Long userId) {
+        return "a" + userId + "-" + Long.toHexString(userDataVersions.alerts(userId));
+    }
+
+    public SseEmitter openStream(Long userId, Long lastEventId) {
+        return eventStreamHub.subscribe(userId, watchedStockRepository.findActiveSymbolsByUserId(userId),
+                lastEventId, unreadAlertCounter.get(userId));
+    }
+
+    @Transactional
+    public void markAlertsAsRead(List<Long> alertIds, Long userId) {
+        int read = alertRepository.markAsRead(userId, alertIds);
+        unreadAlertCounter.alertsRead(userId, read);
+        if (read > 0) {
+            userDataVersions.alertsChanged(userId);
+        }
     }
 }
@@ -0,0 +1,192 @@
+package org.example.service;
+
+import org.example.dto.WatchThresholdRow;
+import org.example.entity.Alert;
+import org.example.repository.WatchedStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Armed/triggered state per watch and side. A side alerts once when its threshold is crossed
+// and re-arms only after the price moves back past the threshold by the hysteresis band.
+// Held in memory and checkpointed to watched_stocks so evaluation never reads the database.
+@Component
+public class AlertTriggerState {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertTriggerState.class);
+
+    @Autowired
+    private WatchedStockRepository watchedStockRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Fraction of the threshold, e.g. 0.01 re-arms a 100.00 minimum once the price is back at 101.00
+    @Value("${stock.alert.hysteresis-band:0.01}")
+    private BigDecimal hysteresisBand;
+
+    // Only watches with a triggered side have an entry
+    private final Map<String, Map<Long, Triggered>> bySymbol = new ConcurrentHashMap<>();
+    private final Map<Long, String> dirty = new ConcurrentHashMap<>();
+    private volatile boolean restored;
+
+    // Threshold each side fired at; null while that side is armed
+    private record Triggered(BigDecimal min, BigDecimal max) {
+        boolean isArmed() {
+            return min == null && max == null;
+        }
+    }
+
+    public boolean isRestored() {
+        return restored;
+    }
+
+    // Seeds the state from the last checkpoint; later index rebuilds keep the in-memory state
+    public void restore(Collection<WatchThresholdRow> rows) {
+        if (restored) {
+            return;
+        }
+        for (WatchThresholdRow row : rows) {
+            BigDecimal min = row.isMinAlertTriggered() ? row.getMinPrice() : null;
+            BigDecimal max = row.isMaxAlertTriggered() ? row.getMaxPrice() : null;
+            if (min != null || max != null) {
+                bySymbol.computeIfAbsent(row.getSymbol(), symbol -> new ConcurrentHashMap<>())
+                        .put(row.getWatchId(), new Triggered(min, max));
+            }
+        }
+        restored = true;
+    }
+
+    // Returns the triggers that moved a side from armed to triggered, and re-arms
+    // triggered sides the price has moved back away from
+    public List<ThresholdIndex.Trigger> transitions(String symbol, BigDecimal price, List<ThresholdIndex.Trigger> triggers) {
+        Map<Long, Triggered> states = bySymbol.get(symbol);
+        if (states == null && triggers.isEmpty()) {
+            return triggers;
+        }
+        if (states == null) {
+            states = bySymbol.computeIfAbsent(symbol, key -> new ConcurrentHashMap<>());
+        }
+
+        List<ThresholdIndex.Trigger> fired = new ArrayList<>();
+        Set<Long> minActive = new HashSet<>();
+        Set<Long> maxActive = new HashSet<>();
+
+        for (ThresholdIndex.Trigger trigger : triggers) {
+            boolean isMin = trigger.type() == Alert.AlertType.MIN_PRICE_EXCEEDED;
+            (isMin ? minActive : maxActive).add(trigger.watchId());
+
+            Triggered current = states.get(trigger.watchId());
+            if (isMin ? current == null || current.min() == null : current == null || current.max() == null) {
+                states.put(trigger.watchId(), isMin
+                        ? new Triggered(trigger.threshold(), current == null ? null : current.max())
+                        : new Triggered(current == null ? null : current.min(), trigger.threshold()));
+                dirty.put(trigger.watchId(), symbol);
+                fired.add(trigger);
+            }
+        }
+
+        for (Map.Entry<Long, Triggered> entry : states.entrySet()) {
+            long watchId = entry.getKey();
+            Triggered current = entry.getValue();
+
+            BigDecimal min = current.min();
+            if (min != null && !minActive.contains(watchId)
+                    && price.compareTo(min.multiply(BigDecimal.ONE.add(hysteresisBand))) >= 0) {
+                min = null;
+            }
+            BigDecimal max = current.max();
+            if (max != null && !maxActive.contains(watchId)
+                    && price.compareTo(max.multiply(BigDecimal.ONE.subtract(hysteresisBand))) <= 0) {
+                max = null;
+            }
+
+            if (min != current.min() || max != current.max()) {
+                Triggered updated = new Triggered(min, max);
+                if (updated.isArmed()) {
+                    states.remove(watchId, current);
+                } else {
+                    states.replace(watchId, current, updated);
+                }
+                dirty.put(watchId, symbol);
+            }
+        }
+
+        return fired;
+    }
+
+    // A moved or removed threshold starts over armed
+    public void reset(String symbol, long watchId) {
+        Map<Long, Triggered> states = bySymbol.get(symbol);
+        if (states != null && states.remove(watchId) != null) {
+            dirty.put(watchId, symbol);
+        }
+    }
+
+    // Undoes the transition of an alert that could not be saved; a side that has since
+    // re-armed or fired at another threshold is left alone
+    public void rearm(TriggeredAlert alert) {
+        Map<Long, Triggered> states = bySymbol.get(alert.symbol());
+        if (states == null) {
+            return;
+        }
+        boolean isMin = alert.type() == Alert.AlertType.MIN_PRICE_EXCEEDED;
+        states.computeIfPresent(alert.watchId(), (watchId, current) -> {
+            BigDecimal fired = isMin ? current.min() : current.max();
+            if (fired == null || fired.compareTo(alert.thresholdPrice()) != 0) {
+                return current;
+            }
+            dirty.put(watchId, alert.symbol());
+            Triggered updated = isMin ? new Triggered(null, current.max()) : new Triggered(current.min(), null);
+            return updated.isArmed() ? null : updated;
+        });
+    }
+
+    public boolean isTriggered(String symbol, long watchId, Alert.AlertType type) {
+        Map<Long, Triggered> states = bySymbol.get(symbol);
+        Triggered current = states == null ? null : states.get(watchId);
+        if (current == null) {
+            return false;
+        }
+        return type == Alert.AlertType.MIN_PRICE_EXCEEDED ? current.min() != null : current.max() != null;
+    }
+
+    // Writes the state of every watch that changed since the last checkpoint, one
+    // UPDATE per combination of flags
+    public void checkpoint() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        Map<Long, String> changed = new HashMap<>(dirty);
+        changed.forEach(dirty::remove);
+
+        Map<List<Boolean>, List<Long>> byFlags = new HashMap<>();
+        changed.forEach((watchId, symbol) -> {
+            boolean min = isTriggered(symbol, watchId, Alert.AlertType.MIN_PRICE_EXCEEDED);
+            boolean max = isTriggered(symbol, watchId, Alert.AlertType.MAX_PRICE_EXCEEDED);
+            byFlags.computeIfAbsent(List.of(min, max), flags -> new ArrayList<>()).add(watchId);
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> byFlags.forEach((flags, ids) ->
+                    watchedStockRepository.updateAlertTriggerState(flags.get(0), flags.get(1), ids)));
+        } catch (Exception e) {
+            changed.forEach(dirty::putIfAbsent);
+            logger.error("Failed to checkpoint alert state for {} watches: {}", changed.size(), e.getMessage());
+        }
+    }
+}
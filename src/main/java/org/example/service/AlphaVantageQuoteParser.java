@@ -0,0 +1,254 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Reads Alpha Vantage responses token by token, keeping only the fields a Quote carries.
+// Numbers are built straight from the parser's character buffer, so no tree, map or
+// intermediate String is created for them.
+public class AlphaVantageQuoteParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public Quote parseGlobalQuote(String symbol, byte[] body, Instant fetchedAt) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Invalid API response for symbol: " + symbol);
+            }
+
+            boolean found = false;
+            Quote quote = null;
+            String message = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "Global Quote" -> {
+                        found = true;
+                        if (value == JsonToken.START_OBJECT) {
+                            quote = readGlobalQuote(parser, symbol, fetchedAt);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "Note", "Information" -> message = readMessage(parser, value, message);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (!found) {
+                // Alpha Vantage answers throttled calls with HTTP 200 and a "Note" or "Information" message
+                if (message != null) {
+                    throw new QuoteThrottledException(message);
+                }
+                throw new RuntimeException("Invalid API response for symbol: " + symbol);
+            }
+            if (quote == null) {
+                throw new RuntimeException("Price not found for symbol: " + symbol);
+            }
+            return quote;
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid API response for symbol: " + symbol + ". " + e.getMessage(), e);
+        }
+    }
+
+    // Entries without a symbol or price are skipped
+    public Map<String, Quote> parseBulkQuotes(byte[] body, Instant fetchedAt) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Invalid bulk quote response");
+            }
+
+            Map<String, Quote> quotes = null;
+            String message = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "data" -> {
+                        if (value != JsonToken.START_ARRAY) {
+                            throw new RuntimeException("Invalid bulk quote response");
+                        }
+                        quotes = new LinkedHashMap<>();
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                                parser.skipChildren();
+                                continue;
+                            }
+                            Quote quote = readBulkEntry(parser, fetchedAt);
+                            if (quote != null) {
+                                quotes.put(quote.symbol(), quote);
+                            }
+                        }
+                    }
+                    case "Note", "Information" -> message = readMessage(parser, value, message);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (quotes == null) {
+                if (message != null) {
+                    throw new QuoteThrottledException(message);
+                }
+                throw new RuntimeException("Invalid bulk quote response");
+            }
+            return quotes;
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid bulk quote response. " + e.getMessage(), e);
+        }
+    }
+
+    private Quote readGlobalQuote(JsonParser parser, String symbol, Instant fetchedAt) throws IOException {
+        BigDecimal price = null;
+        Long volume = null;
+        BigDecimal change = null;
+        LocalDate latestTradingDay = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "05. price" -> price = readDecimal(parser);
+                case "06. volume" -> volume = readLong(parser);
+                case "07. latest trading day" -> latestTradingDay = readDate(parser);
+                case "09. change" -> change = readDecimal(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return price == null ? null : new Quote(symbol, price, volume, change, latestTradingDay, fetchedAt);
+    }
+
+    private Quote readBulkEntry(JsonParser parser, Instant fetchedAt) throws IOException {
+        String symbol = null;
+        BigDecimal price = null;
+        Long volume = null;
+        BigDecimal change = null;
+        LocalDate latestTradingDay = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "symbol" -> symbol = value == JsonToken.VALUE_STRING ? parser.getText().toUpperCase() : null;
+                case "close" -> price = readDecimal(parser);
+                case "volume" -> volume = readLong(parser);
+                case "change" -> change = readDecimal(parser);
+                // "2024-02-02 16:00:00.000"; the date part is the trading day
+                case "timestamp" -> latestTradingDay = readDate(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return symbol == null || price == null ? null : new Quote(symbol, price, volume, change, latestTradingDay, fetchedAt);
+    }
+
+    private String readMessage(JsonParser parser, JsonToken value, String current) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            return current == null ? parser.getText() : current;
+        }
+        parser.skipChildren();
+        return current == null ? "Request limit reached" : current;
+    }
+
+    private static boolean isScalar(JsonToken token) {
+        return token == JsonToken.VALUE_STRING
+                || token == JsonToken.VALUE_NUMBER_INT
+                || token == JsonToken.VALUE_NUMBER_FLOAT;
+    }
+
+    private static BigDecimal readDecimal(JsonParser parser) throws IOException {
+        if (!isScalar(parser.currentToken())) {
+            parser.skipChildren();
+            return null;
+        }
+        int length = parser.getTextLength();
+        if (length == 0) {
+            return null;
+        }
+        // Placeholders such as "None" or "-" are treated as missing
+        try {
+            return new BigDecimal(parser.getTextCharacters(), parser.getTextOffset(), length);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long readLong(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return null;
+        }
+
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length == 0 || length > 18) {
+            return null;
+        }
+
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Reads a leading yyyy-MM-dd; anything else yields null
+    private static LocalDate readDate(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return null;
+        }
+
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        if (parser.getTextLength() < 10 || chars[offset + 4] != '-' || chars[offset + 7] != '-') {
+            return null;
+        }
+
+        int year = digits(chars, offset, 4);
+        int month = digits(chars, offset + 5, 2);
+        int day = digits(chars, offset + 8, 2);
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.service;
+
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public class AlphaVantageQuoteProvider implements QuoteProvider {
+
+    private final String apiBaseUrl;
+    private final String apiKey;
+    private final int batchSize;
+    private final Duration requestTimeout;
+    private final WebClient webClient;
+    private final AlphaVantageQuoteParser parser = new AlphaVantageQuoteParser();
+
+    public AlphaVantageQuoteProvider(String apiBaseUrl, String apiKey, int batchSize, long requestTimeout) {
+        this.apiBaseUrl = apiBaseUrl;
+        this.apiKey = apiKey;
+        this.batchSize = batchSize;
+        this.requestTimeout = Duration.ofMillis(requestTimeout);
+        this.webClient = WebClient.builder().build();
+    }
+
+    @Override
+    public Mono<Quote> fetchQuote(String symbol) {
+        String url = String.format("%s/query?function=GLOBAL_QUOTE&symbol=%s&apikey=%s",
+                                 apiBaseUrl, symbol, apiKey);
+
+        return get(url)
+                .map(body -> parser.parseGlobalQuote(symbol, body, Instant.now()))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Invalid API response for symbol: " + symbol)))
+                .onErrorResume(e -> {
+                    if (e instanceof WebClientResponseException) {
+                        return Mono.error(new RuntimeException("Failed to fetch price for symbol: " + symbol + ". Error: " + e.getMessage()));
+                    }
+                    if (e instanceof QuoteThrottledException) {
+                        return Mono.error(e);
+                    }
+                    return Mono.error(new RuntimeException("Error fetching price for symbol: " + symbol + ". " + e.getMessage()));
+                });
+    }
+
+    @Override
+    public Mono<Map<String, Quote>> fetchQuotes(List<String> symbols) {
+        if (batchSize <= 1) {
+            return QuoteProvider.super.fetchQuotes(symbols);
+        }
+
+        String url = String.format("%s/query?function=REALTIME_BULK_QUOTES&symbol=%s&apikey=%s",
+                                 apiBaseUrl, String.join(",", symbols), apiKey);
+
+        return get(url)
+                .map(body -> parser.parseBulkQuotes(body, Instant.now()))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Invalid bulk quote response for " + symbols.size() + " symbols")));
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return Math.max(1, batchSize);
+    }
+
+    private Mono<byte[]> get(String url) {
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .timeout(requestTimeout);
+    }
+}
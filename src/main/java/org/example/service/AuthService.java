@@ -6,24 +6,28 @@ import org.example.dto.RegisterRequest;
 import org.example.entity.User;
 import org.example.repository.UserRepository;
 import org.example.security.JwtTokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
+// Passwords are hashed and checked on PasswordHasher's bounded pool, never on the request thread
 @Service
 public class AuthService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private LoginThrottle loginThrottle;
 
     @Autowired
     private JwtTokenProvider tokenProvider;
@@ -40,28 +44,63 @@ public class AuthService {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHasher.encode(request.getPassword()));
 
         userRepository.save(user);
 
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
-
-        String token = tokenProvider.generateToken(authentication);
+        // The hash was just made from this password, so checking it again would only double the cost
+        String token = tokenProvider.generateToken(authenticated(user));
 
         return new AuthResponse(token, user.getUsername(), user.getEmail());
     }
 
-    public AuthResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
+    public AuthResponse login(LoginRequest request, String clientIp) {
+        loginThrottle.attempt(clientIp, request.getUsername());
+
+        Optional<User> found;
+        boolean valid;
+        try {
+            found = userRepository.findByUsername(request.getUsername());
+            if (found.isPresent()) {
+                valid = passwordHasher.matches(request.getPassword(), found.get().getPassword()) && found.get().isEnabled();
+            } else {
+                passwordHasher.matchNothing(request.getPassword());
+                valid = false;
+            }
+        } catch (RuntimeException e) {
+            loginThrottle.release(clientIp, request.getUsername());
+            throw e;
+        }
+
+        // A failed attempt stays counted
+        if (!valid) {
+            throw new RuntimeException("Invalid username or password");
+        }
+
+        User user = found.get();
+        loginThrottle.recordSuccess(clientIp, request.getUsername());
+        rehashIfNeeded(user, request.getPassword());
 
-        String token = tokenProvider.generateToken(authentication);
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        String token = tokenProvider.generateToken(authenticated(user));
 
         return new AuthResponse(token, user.getUsername(), user.getEmail());
     }
+
+    // The plain password is only available at login, so that is when a changed cost factor is applied
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHasher.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordHasher.encode(rawPassword));
+            userRepository.save(user);
+        } catch (AuthThrottledException e) {
+            // The login itself succeeded; the next one retries the rehash
+            logger.debug("Skipped password rehash for {}: {}", user.getUsername(), e.getMessage());
+        }
+    }
+
+    private static UsernamePasswordAuthenticationToken authenticated(User user) {
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
 }
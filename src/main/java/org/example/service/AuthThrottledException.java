@@ -0,0 +1,16 @@
+package org.example.service;
+
+// Sign-in work refused for now; answered with 429 and a Retry-After of retryAfterSeconds
+public class AuthThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AuthThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.mail.internet.MimeMessage;
+import org.example.dto.AlertResponse;
+import org.example.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+// Mails each alert to its owner through spring.mail.*. The idempotency key goes out as the
+// Message-ID, so a retried send after a lost acknowledgement is recognisable as a duplicate.
+@Component
+@ConditionalOnProperty(name = "stock.notify.email.enabled", havingValue = "true")
+public class EmailNotificationChannel implements NotificationChannel {
+
+    public static final String NAME = "email";
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${stock.notify.email.from:alerts@stockwatch.local}")
+    private String from;
+
+    @Value("${stock.notify.email.concurrency:2}")
+    private int concurrency;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int concurrency() {
+        return concurrency;
+    }
+
+    @Override
+    public void send(Notification notification) throws Exception {
+        String to = userRepository.findEmailById(notification.userId())
+                .orElseThrow(() -> new RuntimeException("No email address for user " + notification.userId()));
+        AlertResponse alert = objectMapper.readValue(notification.payload(), AlertResponse.class);
+
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(from);
+        helper.setTo(to);
+        helper.setSubject(String.format("StockWatch alert: %s at %s", alert.getSymbol(), alert.getCurrentPrice()));
+        helper.setText(String.format("%s is at %s, %s your threshold of %s (triggered %s).",
+                alert.getSymbol(), alert.getCurrentPrice(), describe(alert), alert.getThresholdPrice(), alert.getTriggeredAt()));
+        message.setHeader("X-Idempotency-Key", notification.idempotencyKey());
+        // JavaMailSender keeps a Message-ID that is already set instead of generating one
+        message.setHeader("Message-ID", "<" + notification.idempotencyKey() + "@stockwatch>");
+        mailSender.send(message);
+    }
+
+    private static String describe(AlertResponse alert) {
+        return switch (alert.getAlertType()) {
+            case MIN_PRICE_EXCEEDED -> "fell to or below";
+            case MAX_PRICE_EXCEEDED -> "rose to or above";
+        };
+    }
+}
@@ -0,0 +1,355 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.dto.AlertResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user fan-out of server-sent events. Each connection has a bounded queue drained by its
+// own sender task; a connection whose queue overflows is closed instead of slowing the publisher.
+// Alert events carry ids and are kept in a short per-user replay buffer, so a client reconnecting
+// with Last-Event-ID receives what it missed. Price and unread-count events are state snapshots
+// and are not replayed.
+@Component
+public class EventStreamHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamHub.class);
+
+    public static final String ALERT_EVENT = "alert";
+    public static final String PRICE_EVENT = "price";
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+    // Tells the client its Last-Event-ID is older than the replay buffer and it should reload over REST
+    public static final String RESYNC_EVENT = "resync";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${stock.stream.timeout:1800000}")
+    private long timeout;
+
+    @Value("${stock.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${stock.stream.replay-size:100}")
+    private int replaySize;
+
+    // How long after its last connection a user's alerts are still buffered for resuming
+    @Value("${stock.stream.replay-ttl:600000}")
+    private long replayTtl;
+
+    @Value("${stock.stream.replay-max-users:10000}")
+    private long replayMaxUsers;
+
+    @Value("${stock.stream.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    // 0 turns heartbeats off
+    @Value("${stock.stream.heartbeat-interval:15000}")
+    private long heartbeatInterval;
+
+    public record PriceUpdate(String symbol, BigDecimal price, String timestamp) {}
+
+    private record StreamEvent(Long id, String name, Object data) {}
+
+    private final Map<Long, List<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> bySymbol = new ConcurrentHashMap<>();
+    // Ids only need to increase; seeding from the clock keeps them increasing across restarts
+    private final AtomicLong eventIds = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    // Not the shared @Scheduled thread: a monitor cycle can hold it past the point where proxies
+    // drop an idle stream
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("stream-heartbeat").daemon().factory());
+    private Cache<Long, ReplayBuffer> replay;
+    private Counter evictions;
+
+    @PostConstruct
+    public void init() {
+        replay = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(replayTtl))
+                .maximumSize(replayMaxUsers)
+                .build();
+        evictions = meterRegistry.counter("stockwatch.stream.evictions");
+        meterRegistry.gaugeMapSize("stockwatch.stream.users", List.of(), byUser);
+        if (heartbeatInterval > 0) {
+            heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public Set<Long> connectedUsers() {
+        return byUser.keySet();
+    }
+
+    // Initial events go out first, followed by any replayed alerts after lastEventId
+    public SseEmitter subscribe(Long userId, Collection<String> symbols, Long lastEventId, long unreadCount) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(userId, emitter, symbols);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        // Completing here ends the response quietly; the client reconnects with Last-Event-ID
+        emitter.onTimeout(() -> close(subscriber, "timeout"));
+        emitter.onError(e -> remove(subscriber));
+
+        for (String symbol : subscriber.symbols) {
+            bySymbol.computeIfAbsent(symbol, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+
+        // Alerts are published under the buffer's lock, so each one is either in the replay
+        // snapshot or delivered live after registration, never both
+        ReplayBuffer buffer = replay.get(userId, id -> new ReplayBuffer(eventIds.get()));
+        List<Subscriber> connections;
+        synchronized (buffer) {
+            // A single compute, so a concurrent remove() cannot drop the list this subscriber joins
+            connections = byUser.compute(userId, (id, existing) -> {
+                List<Subscriber> list = existing != null ? existing : new CopyOnWriteArrayList<>();
+                list.add(subscriber);
+                return list;
+            });
+            subscriber.offer(new StreamEvent(null, UNREAD_COUNT_EVENT, unreadCount));
+            if (lastEventId != null) {
+                if (!buffer.covers(lastEventId)) {
+                    subscriber.offer(new StreamEvent(null, RESYNC_EVENT, lastEventId));
+                } else {
+                    buffer.after(lastEventId).forEach(subscriber::offer);
+                }
+            }
+        }
+
+        while (connections.size() > maxConnectionsPerUser) {
+            close(connections.get(0), "connection limit");
+        }
+        return emitter;
+    }
+
+    // Users who have not connected recently have no buffer and fetch their alerts over REST
+    public void publishAlerts(Long userId, List<AlertResponse> alerts) {
+        ReplayBuffer buffer = replay.getIfPresent(userId);
+        if (buffer == null) {
+            return;
+        }
+        synchronized (buffer) {
+            List<Subscriber> connections = byUser.get(userId);
+            for (AlertResponse alert : alerts) {
+                StreamEvent event = new StreamEvent(eventIds.incrementAndGet(), ALERT_EVENT, alert);
+                buffer.add(event);
+                if (connections != null) {
+                    connections.forEach(subscriber -> subscriber.offer(event));
+                }
+            }
+        }
+    }
+
+    public void publishUnreadCount(Long userId, long count) {
+        List<Subscriber> connections = byUser.get(userId);
+        if (connections != null) {
+            StreamEvent event = new StreamEvent(null, UNREAD_COUNT_EVENT, count);
+            connections.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    public void publishPrice(String symbol, BigDecimal price) {
+        Set<Subscriber> watchers = bySymbol.get(symbol);
+        if (watchers == null || watchers.isEmpty()) {
+            return;
+        }
+        StreamEvent event = new StreamEvent(null, PRICE_EVENT, new PriceUpdate(symbol, price, Instant.now().toString()));
+        watchers.forEach(subscriber -> subscriber.offer(event));
+    }
+
+    public void watchAdded(Long userId, String symbol) {
+        List<Subscriber> connections = byUser.get(userId);
+        if (connections != null) {
+            for (Subscriber subscriber : connections) {
+                subscriber.symbols.add(symbol);
+                bySymbol.computeIfAbsent(symbol, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            }
+        }
+    }
+
+    public void watchRemoved(Long userId, String symbol) {
+        List<Subscriber> connections = byUser.get(userId);
+        if (connections != null) {
+            for (Subscriber subscriber : connections) {
+                subscriber.symbols.remove(symbol);
+                unindex(symbol, subscriber);
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and finds the ones whose client went away
+    public void heartbeat() {
+        try {
+            byUser.values().forEach(connections -> connections.forEach(Subscriber::heartbeat));
+        } catch (RuntimeException e) {
+            // A failure must not cancel the schedule
+            logger.warn("Stream heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        byUser.values().forEach(connections -> connections.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private void close(Subscriber subscriber, String reason) {
+        logger.debug("Closing event stream of user {}: {}", subscriber.userId, reason);
+        remove(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        byUser.computeIfPresent(subscriber.userId, (id, connections) -> {
+            connections.remove(subscriber);
+            return connections.isEmpty() ? null : connections;
+        });
+        for (String symbol : subscriber.symbols) {
+            unindex(symbol, subscriber);
+        }
+        subscriber.queue.clear();
+    }
+
+    private void unindex(String symbol, Subscriber subscriber) {
+        bySymbol.computeIfPresent(symbol, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static SseEmitter.SseEventBuilder toSse(StreamEvent event) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.name()).data(event.data());
+        return event.id() == null ? builder : builder.id(String.valueOf(event.id()));
+    }
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Set<String> symbols = ConcurrentHashMap.newKeySet();
+        private final BlockingQueue<StreamEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long userId, SseEmitter emitter, Collection<String> symbols) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.symbols.addAll(symbols);
+        }
+
+        private void offer(StreamEvent event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // A client this far behind would only fall further behind; it reconnects and resumes
+                evictions.increment();
+                close(this, "slow consumer");
+                return;
+            }
+            schedule();
+        }
+
+        private void heartbeat() {
+            if (queue.isEmpty() && !draining.get()) {
+                senders.execute(() -> send(SseEmitter.event().comment("heartbeat")));
+            }
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                StreamEvent event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    if (!send(toSse(event))) {
+                        return;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                remove(this);
+                return false;
+            }
+        }
+    }
+
+    // Last alert events of one user; ids older than the buffer can no longer be resumed from
+    private final class ReplayBuffer {
+        private final Deque<StreamEvent> events = new ArrayDeque<>();
+        private long coveredAfter;
+
+        private ReplayBuffer(long coveredAfter) {
+            this.coveredAfter = coveredAfter;
+        }
+
+        private synchronized void add(StreamEvent event) {
+            events.addLast(event);
+            if (events.size() > replaySize) {
+                coveredAfter = events.removeFirst().id();
+            }
+        }
+
+        private synchronized boolean covers(long lastEventId) {
+            return lastEventId >= coveredAfter;
+        }
+
+        private synchronized List<StreamEvent> after(long lastEventId) {
+            List<StreamEvent> missed = new ArrayList<>();
+            for (StreamEvent event : events) {
+                if (event.id() > lastEventId) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        }
+    }
+}
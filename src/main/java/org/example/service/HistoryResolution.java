@@ -0,0 +1,33 @@
+package org.example.service;
+
+public enum HistoryResolution {
+    TICK("tick", 0),
+    MINUTE("1m", 60_000L),
+    HOUR("1h", 3_600_000L),
+    DAY("1d", 86_400_000L);
+
+    private final String code;
+    private final long bucketMillis;
+
+    HistoryResolution(String code, long bucketMillis) {
+        this.code = code;
+        this.bucketMillis = bucketMillis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long bucketStart(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, bucketMillis);
+    }
+
+    public static HistoryResolution fromCode(String code) {
+        for (HistoryResolution resolution : values()) {
+            if (resolution.code.equalsIgnoreCase(code)) {
+                return resolution;
+            }
+        }
+        throw new InvalidHistoryRequestException("Unknown resolution: " + code);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.service;
+
+// A paging cursor that was not issued by this service or has been altered; answered with 400
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException() {
+        super("Invalid cursor");
+    }
+}
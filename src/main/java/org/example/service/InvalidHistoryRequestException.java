@@ -0,0 +1,9 @@
+package org.example.service;
+
+// A price history request the caller has to change (bad range, resolution or too many points); answered with 400
+public class InvalidHistoryRequestException extends RuntimeException {
+
+    public InvalidHistoryRequestException(String message) {
+        super(message);
+    }
+}
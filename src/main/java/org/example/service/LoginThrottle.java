@@ -0,0 +1,93 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Counts failed logins per client IP and per username in fixed windows that start with the first
+// failure. Once either count reaches its limit, further attempts are refused before any hashing.
+// Every attempt is counted up front and given back when it succeeds, so parallel requests cannot
+// all pass the check before any of their failures is recorded.
+@Component
+public class LoginThrottle {
+
+    @Value("${auth.throttle.window:900000}")
+    private long window;
+
+    @Value("${auth.throttle.max-failures-per-user:5}")
+    private int maxFailuresPerUser;
+
+    @Value("${auth.throttle.max-failures-per-ip:20}")
+    private int maxFailuresPerIp;
+
+    @Value("${auth.throttle.max-keys:100000}")
+    private long maxKeys;
+
+    private Cache<String, AtomicInteger> failures;
+
+    @PostConstruct
+    public void init() {
+        failures = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(window))
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    // Counts the attempt as a failure until recordSuccess or release says otherwise
+    public void attempt(String clientIp, String username) {
+        String ipKey = ipKey(clientIp);
+        acquire(ipKey, maxFailuresPerIp);
+        try {
+            acquire(userKey(username), maxFailuresPerUser);
+        } catch (AuthThrottledException e) {
+            decrement(ipKey);
+            throw e;
+        }
+    }
+
+    // The rest of the IP count is kept: one success must not reset a client trying many accounts
+    public void recordSuccess(String clientIp, String username) {
+        decrement(ipKey(clientIp));
+        failures.invalidate(userKey(username));
+    }
+
+    // The attempt ended before the password was checked
+    public void release(String clientIp, String username) {
+        decrement(ipKey(clientIp));
+        decrement(userKey(username));
+    }
+
+    private void acquire(String key, int limit) {
+        AtomicInteger count = failures.get(key, k -> new AtomicInteger());
+        if (count.incrementAndGet() > limit) {
+            count.decrementAndGet();
+            long age = failures.policy().expireAfterWrite()
+                    .flatMap(expiry -> expiry.ageOf(key))
+                    .map(Duration::toMillis)
+                    .orElse(0L);
+            throw new AuthThrottledException("Too many failed sign-in attempts, try again later",
+                    Math.max(1, (window - age + 999) / 1000));
+        }
+    }
+
+    private void decrement(String key) {
+        AtomicInteger count = failures.getIfPresent(key);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    private static String ipKey(String clientIp) {
+        return "ip:" + clientIp;
+    }
+
+    private static String userKey(String username) {
+        return "user:" + username.toLowerCase(Locale.ROOT);
+    }
+}
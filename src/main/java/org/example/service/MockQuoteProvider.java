@@ -0,0 +1,22 @@
+package org.example.service;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+public class MockQuoteProvider implements QuoteProvider {
+
+    @Override
+    public Mono<Quote> fetchQuote(String symbol) {
+        return Mono.fromSupplier(() -> new Quote(symbol, generateMockPrice(symbol), Instant.now()));
+    }
+
+    private BigDecimal generateMockPrice(String symbol) {
+        int hash = symbol.hashCode();
+        double basePrice = 50 + (hash % 200);
+        double variation = (System.currentTimeMillis() % 10000) / 100.0 - 50;
+        return BigDecimal.valueOf(Math.max(1.0, basePrice + variation)).setScale(2, RoundingMode.HALF_UP);
+    }
+}
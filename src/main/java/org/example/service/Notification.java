@@ -0,0 +1,5 @@
+package org.example.service;
+
+// One claimed outbox row. The idempotency key is stable across retries so receivers can drop duplicates.
+public record Notification(long id, long alertId, long userId, String channel, String idempotencyKey,
+                           String payload, int attempts) {}
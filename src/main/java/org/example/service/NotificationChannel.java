@@ -0,0 +1,15 @@
+package org.example.service;
+
+// A delivery channel for alert notifications. Implementations are registered as beans when enabled
+// and called from NotificationDispatcher's sender threads, never from the monitoring loop.
+public interface NotificationChannel {
+
+    // Stored in notification_outbox.channel; must not change once rows exist
+    String name();
+
+    // Upper bound on sends in flight at once for this channel
+    int concurrency();
+
+    // Blocking is fine: each send runs on its own virtual thread. Throwing schedules a retry.
+    void send(Notification notification) throws Exception;
+}
@@ -0,0 +1,239 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Drains notification_outbox. Each poll first records the results of finished sends in two batch
+// updates, then claims due rows per channel and hands them to virtual threads, gated by the
+// channel's concurrency limit. A claim is a lease: rows whose sender died become due again
+// once next_attempt_at passes, so delivery is at least once and receivers dedupe by idempotency key.
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private List<NotificationChannel> channels = List.of();
+
+    @Value("${stock.notify.poll-interval:1000}")
+    private long pollInterval;
+
+    // Most rows claimed and queued per channel at a time
+    @Value("${stock.notify.batch-size:100}")
+    private int batchSize;
+
+    // How long a claimed row stays reserved before another poll may take it again
+    @Value("${stock.notify.lease:300000}")
+    private long lease;
+
+    @Value("${stock.notify.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${stock.notify.backoff-initial:5000}")
+    private long backoffInitial;
+
+    @Value("${stock.notify.backoff-max:3600000}")
+    private long backoffMax;
+
+    // Days to keep sent and failed rows; 0 keeps them
+    @Value("${stock.notify.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${stock.notify.delete-batch-size:5000}")
+    private int deleteBatchSize;
+
+    private record Result(long id, String claimToken, int attempts, String error) {}
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    // Polls on its own thread rather than the shared @Scheduled one, which a monitor cycle can hold
+    // for most of a tick; delivery must not wait for quote fetching
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("notify-dispatcher").daemon().factory());
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void start() {
+        poller.scheduleWithFixedDelay(this::dispatch, 0, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public void dispatch() {
+        if (channels.isEmpty()) {
+            return;
+        }
+        try {
+            flushResults();
+            for (NotificationChannel channel : channels) {
+                claimAndSubmit(channel);
+            }
+        } catch (Exception e) {
+            logger.error("Notification dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${stock.notify.cleanup-cron:0 45 3 * * *}")
+    public void cleanup() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM notification_outbox WHERE id IN (SELECT id FROM notification_outbox " +
+                    "WHERE status IN ('SENT', 'FAILED') AND created_at < ? LIMIT ?)", cutoff, deleteBatchSize);
+            total += deleted;
+        } while (deleted == deleteBatchSize);
+
+        if (total > 0) {
+            logger.info("Deleted {} delivered or failed notifications created before {}", total, cutoff);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        poller.shutdown();
+        poller.awaitTermination(5, TimeUnit.SECONDS);
+        senders.shutdown();
+        senders.awaitTermination(5, TimeUnit.SECONDS);
+        // Anything still unrecorded is sent again after its lease expires
+        flushResults();
+    }
+
+    void flushResults() {
+        List<Object[]> sent = new ArrayList<>();
+        List<Object[]> failed = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        Result result;
+        while ((result = results.poll()) != null) {
+            if (result.error() == null) {
+                sent.add(new Object[] {now, result.id(), result.claimToken()});
+            } else {
+                int attempts = result.attempts() + 1;
+                boolean exhausted = attempts >= maxAttempts;
+                failed.add(new Object[] {exhausted ? "FAILED" : "PENDING", now.plus(Duration.ofMillis(backoff(attempts))),
+                    truncate(result.error()), result.id(), result.claimToken()});
+            }
+        }
+
+        // The claim token check ignores rows that were re-claimed after their lease ran out
+        if (!sent.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE notification_outbox SET status = 'SENT', sent_at = ?, attempts = attempts + 1, " +
+                    "claim_token = NULL, last_error = NULL WHERE id = ? AND claim_token = ?", sent);
+        }
+        if (!failed.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE notification_outbox SET status = ?, next_attempt_at = ?, last_error = ?, " +
+                    "attempts = attempts + 1, claim_token = NULL WHERE id = ? AND claim_token = ?", failed);
+        }
+    }
+
+    // Rows are claimed by a single conditional update, so concurrent dispatchers never share a row
+    private void claimAndSubmit(NotificationChannel channel) {
+        AtomicInteger queued = inFlight.computeIfAbsent(channel.name(), name -> new AtomicInteger());
+        int capacity = batchSize - queued.get();
+        if (capacity <= 0) {
+            return;
+        }
+
+        String claimToken = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = jdbcTemplate.update("UPDATE notification_outbox SET status = 'SENDING', claim_token = ?, next_attempt_at = ? " +
+                "WHERE id IN (SELECT id FROM notification_outbox WHERE channel = ? AND status IN ('PENDING', 'SENDING') " +
+                "AND next_attempt_at <= ? ORDER BY next_attempt_at LIMIT ?) " +
+                "AND status IN ('PENDING', 'SENDING') AND next_attempt_at <= ?",
+                claimToken, now.plus(Duration.ofMillis(lease)), channel.name(), now, capacity, now);
+        if (claimed == 0) {
+            return;
+        }
+
+        List<Notification> notifications = jdbcTemplate.query("SELECT id, alert_id, user_id, channel, idempotency_key, " +
+                "payload, attempts FROM notification_outbox WHERE claim_token = ?",
+                (rs, rowNum) -> new Notification(rs.getLong("id"), rs.getLong("alert_id"), rs.getLong("user_id"),
+                        rs.getString("channel"), rs.getString("idempotency_key"), rs.getString("payload"),
+                        rs.getInt("attempts")),
+                claimToken);
+
+        Semaphore semaphore = permits.computeIfAbsent(channel.name(), name -> new Semaphore(Math.max(1, channel.concurrency())));
+        for (Notification notification : notifications) {
+            queued.incrementAndGet();
+            senders.execute(() -> send(channel, semaphore, notification, claimToken, queued));
+        }
+    }
+
+    private void send(NotificationChannel channel, Semaphore semaphore, Notification notification,
+                      String claimToken, AtomicInteger queued) {
+        String error = null;
+        long startedAt = System.nanoTime();
+        try {
+            semaphore.acquire();
+            try {
+                startedAt = System.nanoTime();
+                channel.send(notification);
+            } finally {
+                semaphore.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted";
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            logger.warn("Notification {} via {} failed (attempt {}): {}", notification.idempotencyKey(),
+                    channel.name(), notification.attempts() + 1, error);
+        } finally {
+            Timer.builder("stockwatch.notify.send")
+                    .tag("channel", channel.name())
+                    .tag("outcome", error == null ? "sent" : "failed")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            results.add(new Result(notification.id(), claimToken, notification.attempts(), error));
+            queued.decrementAndGet();
+        }
+    }
+
+    // Exponential with jitter, so retries of a burst that failed together do not arrive together
+    long backoff(int attempts) {
+        long delay = backoffInitial << Math.min(attempts - 1, 30);
+        delay = Math.min(backoffMax, delay <= 0 ? backoffMax : delay);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
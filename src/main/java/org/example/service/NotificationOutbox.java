@@ -0,0 +1,63 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.AlertResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Writes one notification_outbox row per alert and enabled channel. Runs inside the transaction
+// that inserts the alerts, so a notification exists exactly when its alert was committed.
+@Component
+public class NotificationOutbox {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private List<NotificationChannel> channels = List.of();
+
+    public static String idempotencyKey(Long alertId, String channel) {
+        return "alert-" + alertId + "-" + channel;
+    }
+
+    // Must run inside the transaction that inserted the alerts
+    public void enqueue(Map<Long, List<AlertResponse>> alertsByUser) {
+        if (channels.isEmpty() || alertsByUser.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        alertsByUser.forEach((userId, alerts) -> {
+            for (AlertResponse alert : alerts) {
+                String payload = toJson(alert);
+                for (NotificationChannel channel : channels) {
+                    rows.add(new Object[] {alert.getId(), userId, channel.name(),
+                        idempotencyKey(alert.getId(), channel.name()), payload, now, now});
+                }
+            }
+        });
+
+        jdbcTemplate.batchUpdate("INSERT INTO notification_outbox " +
+                "(alert_id, user_id, channel, idempotency_key, payload, status, attempts, next_attempt_at, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, 'PENDING', 0, ?, ?)", rows);
+    }
+
+    private String toJson(AlertResponse alert) {
+        try {
+            return objectMapper.writeValueAsString(alert);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize alert " + alert.getId(), e);
+        }
+    }
+}
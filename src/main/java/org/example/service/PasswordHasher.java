@@ -0,0 +1,108 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Runs BCrypt on a small fixed pool so a burst of sign-ins cannot take every request thread's CPU.
+// When the queue is full the caller gets an AuthThrottledException (429) straight away instead of waiting.
+@Component
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 0 uses half the available processors
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.hashing.queue-size:32}")
+    private int queueSize;
+
+    @Value("${auth.hashing.timeout:10000}")
+    private long timeout;
+
+    @Value("${auth.bcrypt.strength:10}")
+    private int strength;
+
+    private ThreadPoolExecutor executor;
+    private Counter rejections;
+    private String dummyHash;
+
+    @PostConstruct
+    public void init() {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory(), new ThreadPoolExecutor.AbortPolicy());
+        rejections = meterRegistry.counter("stockwatch.auth.hashing.rejected");
+        meterRegistry.gauge("stockwatch.auth.hashing.queued", executor, pool -> pool.getQueue().size());
+        dummyHash = passwordEncoder.encode("unknown-user-placeholder");
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String hash) {
+        return run(() -> passwordEncoder.matches(rawPassword, hash));
+    }
+
+    // Costs the same as a real check, so response times do not reveal which usernames exist
+    public void matchNothing(String rawPassword) {
+        run(() -> passwordEncoder.matches(rawPassword, dummyHash));
+    }
+
+    // True when the hash was made with a different cost factor than the configured one
+    public boolean needsRehash(String hash) {
+        Matcher matcher = BCRYPT_COST.matcher(hash);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new AuthThrottledException("Too many sign-in requests, try again shortly", 1);
+        }
+
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new AuthThrottledException("Sign-in timed out, try again shortly", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package org.example.service;
+
+// One rollup bucket; prices are ThresholdIndex fixed-point values
+public record PriceBar(int symbolId, long start, long open, long high, long low, long close, int ticks) {}
@@ -0,0 +1,9 @@
+package org.example.service;
+
+// Price history is switched off (stock.history.enabled=false); answered with 404
+public class PriceHistoryDisabledException extends RuntimeException {
+
+    public PriceHistoryDisabledException() {
+        super("Price history is disabled");
+    }
+}
@@ -0,0 +1,257 @@
+package org.example.service;
+
+import org.example.dto.PriceHistoryPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class PriceHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    private static final HistoryResolution[] ROLLUPS = {
+        HistoryResolution.MINUTE, HistoryResolution.HOUR, HistoryResolution.DAY
+    };
+
+    @Autowired
+    private PriceHistoryStore store;
+
+    @Value("${stock.history.max-points:5000}")
+    private int maxPoints;
+
+    @Value("${stock.history.max-range-days:1830}")
+    private int maxRangeDays;
+
+    // Raw ticks are only served for short ranges; longer ones should use bars
+    @Value("${stock.history.max-tick-range-days:2}")
+    private int maxTickRangeDays;
+
+    // Raw ticks of rolled-up days older than this are deleted; 0 keeps them
+    @Value("${stock.history.raw-retention-days:30}")
+    private int rawRetentionDays;
+
+    public List<PriceHistoryPoint> getHistory(String symbol, Instant from, Instant to, HistoryResolution resolution) {
+        if (!store.isEnabled()) {
+            throw new PriceHistoryDisabledException();
+        }
+        if (!from.isBefore(to)) {
+            throw new InvalidHistoryRequestException("from must be before to");
+        }
+        if (Duration.between(from, to).toDays() > maxRangeDays) {
+            throw new InvalidHistoryRequestException("Range exceeds " + maxRangeDays + " days");
+        }
+        if (resolution == HistoryResolution.TICK && Duration.between(from, to).compareTo(Duration.ofDays(maxTickRangeDays)) > 0) {
+            throw new InvalidHistoryRequestException("Tick range exceeds " + maxTickRangeDays + " days; use a bar resolution");
+        }
+
+        List<PriceHistoryPoint> points = new ArrayList<>();
+        int symbolId = store.symbolId(symbol);
+        if (symbolId < 0) {
+            return points;
+        }
+
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        LocalDate last = PriceHistoryStore.dayOf(toMillis - 1);
+
+        for (LocalDate day = PriceHistoryStore.dayOf(fromMillis); !day.isAfter(last); day = day.plusDays(1)) {
+            if (resolution == HistoryResolution.TICK) {
+                List<long[]> ticks = new ArrayList<>();
+                int room = maxPoints - points.size();
+                store.forEachTick(day, Long.MAX_VALUE, (id, time, price) -> {
+                    if (id == symbolId && time >= fromMillis && time < toMillis) {
+                        if (ticks.size() == room) {
+                            throw tooManyPoints();
+                        }
+                        ticks.add(new long[] {time, price});
+                    }
+                });
+                // Ticks are stored in arrival order, which is not always time order
+                ticks.sort((a, b) -> Long.compare(a[0], b[0]));
+                addAll(points, ticks.stream().map(tick -> toPoint(tick[0], tick[1])).toList());
+            } else if (isRolledUp(resolution, day)) {
+                List<PriceHistoryPoint> bars = new ArrayList<>();
+                store.forEachBar(resolution, day, symbolId, fromMillis, toMillis, bar -> bars.add(toPoint(bar)));
+                addAll(points, bars);
+            } else {
+                addAll(points, liveBars(resolution, day, symbolId, fromMillis, toMillis));
+            }
+        }
+        return points;
+    }
+
+    // A day still receiving ticks (usually today): the last rollup covers its first sourceCount ticks,
+    // so only the ticks appended since then are aggregated on the fly and merged into those bars
+    private List<PriceHistoryPoint> liveBars(HistoryResolution resolution, LocalDate day, int symbolId,
+                                             long fromMillis, long toMillis) {
+        Map<Long, BarBuilder> byStart = new TreeMap<>();
+        long rolled = Math.max(0, store.rollupSourceCount(resolution, day));
+        if (rolled > 0) {
+            store.forEachBar(resolution, day, symbolId, fromMillis, toMillis,
+                    bar -> byStart.put(bar.start(), BarBuilder.of(bar)));
+        }
+
+        store.forEachTick(day, rolled, Long.MAX_VALUE, (id, time, price) -> {
+            if (id != symbolId) {
+                return;
+            }
+            long start = resolution.bucketStart(time);
+            if (start >= fromMillis && start < toMillis) {
+                byStart.computeIfAbsent(start, key -> new BarBuilder(id, start)).add(time, price);
+            }
+        });
+
+        return byStart.values().stream().map(builder -> toPoint(builder.build())).toList();
+    }
+
+    @Scheduled(fixedDelayString = "${stock.history.rollup-interval:300000}")
+    public void rollup() {
+        if (!store.isEnabled()) {
+            return;
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (LocalDate day : store.tickDays()) {
+            try {
+                long ticks = store.tickCount(day);
+                if (store.rollupSourceCount(HistoryResolution.MINUTE, day) != ticks) {
+                    Map<HistoryResolution, List<PriceBar>> bars = aggregate(day, ticks, -1);
+                    // Minute last: it is the file whose count marks the day as rolled up
+                    for (int i = ROLLUPS.length - 1; i >= 0; i--) {
+                        store.writeBars(ROLLUPS[i], day, bars.get(ROLLUPS[i]), ticks);
+                    }
+                    logger.debug("Rolled up {} price ticks for {}", ticks, day);
+                }
+                if (rawRetentionDays > 0 && day.isBefore(today.minusDays(rawRetentionDays))) {
+                    store.deleteTicks(day);
+                    logger.info("Deleted raw price ticks for {}", day);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to roll up price history for {}: {}", day, e.getMessage());
+            }
+        }
+    }
+
+    // A day without raw ticks keeps whatever rollup it has
+    private boolean isRolledUp(HistoryResolution resolution, LocalDate day) {
+        long rolled = store.rollupSourceCount(resolution, day);
+        return rolled >= 0 && (!store.hasTicks(day) || rolled == store.tickCount(day));
+    }
+
+    // One pass over the day's ticks builds every resolution; symbolId -1 means all symbols.
+    // Bars come out sorted by symbol, then bucket start.
+    private Map<HistoryResolution, List<PriceBar>> aggregate(LocalDate day, long limit, int symbolId) {
+        Map<HistoryResolution, Map<Long, BarBuilder>> builders = new EnumMap<>(HistoryResolution.class);
+        for (HistoryResolution resolution : ROLLUPS) {
+            builders.put(resolution, new HashMap<>());
+        }
+
+        store.forEachTick(day, limit, (id, time, price) -> {
+            if (symbolId >= 0 && id != symbolId) {
+                return;
+            }
+            for (HistoryResolution resolution : ROLLUPS) {
+                long start = resolution.bucketStart(time);
+                // Bucket offsets within a day fit in the low 32 bits
+                builders.get(resolution)
+                        .computeIfAbsent(((long) id << 32) ^ ((start - PriceHistoryStore.startOf(day)) / 1000),
+                                key -> new BarBuilder(id, start))
+                        .add(time, price);
+            }
+        });
+
+        Map<HistoryResolution, List<PriceBar>> bars = new EnumMap<>(HistoryResolution.class);
+        builders.forEach((resolution, byKey) -> bars.put(resolution, byKey.values().stream()
+                .sorted((a, b) -> a.symbolId != b.symbolId
+                        ? Integer.compare(a.symbolId, b.symbolId)
+                        : Long.compare(a.start, b.start))
+                .map(BarBuilder::build)
+                .toList()));
+        return bars;
+    }
+
+    private void addAll(List<PriceHistoryPoint> points, List<PriceHistoryPoint> added) {
+        if (points.size() + added.size() > maxPoints) {
+            throw tooManyPoints();
+        }
+        points.addAll(added);
+    }
+
+    private InvalidHistoryRequestException tooManyPoints() {
+        return new InvalidHistoryRequestException("More than " + maxPoints + " points; narrow the range or use a coarser resolution");
+    }
+
+    private static PriceHistoryPoint toPoint(long time, long price) {
+        return new PriceHistoryPoint(Instant.ofEpochMilli(time).toString(), ThresholdIndex.fromFixed(price),
+                ThresholdIndex.fromFixed(price), ThresholdIndex.fromFixed(price), ThresholdIndex.fromFixed(price), 1);
+    }
+
+    private static PriceHistoryPoint toPoint(PriceBar bar) {
+        return new PriceHistoryPoint(Instant.ofEpochMilli(bar.start()).toString(), ThresholdIndex.fromFixed(bar.open()),
+                ThresholdIndex.fromFixed(bar.high()), ThresholdIndex.fromFixed(bar.low()),
+                ThresholdIndex.fromFixed(bar.close()), bar.ticks());
+    }
+
+    // Open and close follow tick time rather than arrival order
+    private static final class BarBuilder {
+        private final int symbolId;
+        private final long start;
+        private long openTime = Long.MAX_VALUE;
+        private long closeTime = Long.MIN_VALUE;
+        private long open;
+        private long high = Long.MIN_VALUE;
+        private long low = Long.MAX_VALUE;
+        private long close;
+        private int ticks;
+
+        private BarBuilder(int symbolId, long start) {
+            this.symbolId = symbolId;
+            this.start = start;
+        }
+
+        // Continues a rolled-up bar; ticks added later are taken to be newer than the ones it was built from
+        private static BarBuilder of(PriceBar bar) {
+            BarBuilder builder = new BarBuilder(bar.symbolId(), bar.start());
+            builder.openTime = bar.start();
+            builder.closeTime = bar.start();
+            builder.open = bar.open();
+            builder.close = bar.close();
+            builder.high = bar.high();
+            builder.low = bar.low();
+            builder.ticks = bar.ticks();
+            return builder;
+        }
+
+        private void add(long time, long price) {
+            if (time < openTime) {
+                openTime = time;
+                open = price;
+            }
+            if (time >= closeTime) {
+                closeTime = time;
+                close = price;
+            }
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            ticks++;
+        }
+
+        private PriceBar build() {
+            return new PriceBar(symbolId, start, open, high, low, close, ticks);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Append-only price history on disk, one file per UTC day:
+//   ticks/yyyy-MM-dd.bin  raw ticks in arrival order, memory-mapped while the day is being written
+//   1m|1h|1d/yyyy-MM-dd.bin  rollups sorted by (symbol, bucket), so one symbol's range is a
+//                            contiguous slice found by binary search
+// Both start with an 8-byte header: the tick count (rollups: the tick count they were built from).
+// Records are read in place from the mapped file without copying.
+@Component
+public class PriceHistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryStore.class);
+
+    static final int HEADER_BYTES = 8;
+    // symbol id (int), epoch millis (long), price (long)
+    static final int TICK_BYTES = 20;
+    // symbol id (int), bucket start (long), open, high, low, close (long), tick count (int)
+    static final int BAR_BYTES = 48;
+
+    private static final String TICKS = "ticks";
+    private static final String SUFFIX = ".bin";
+
+    @FunctionalInterface
+    public interface TickVisitor {
+        void visit(int symbolId, long epochMillis, long price);
+    }
+
+    @Value("${stock.history.enabled:true}")
+    private boolean enabled;
+
+    @Value("${stock.history.dir:data/history}")
+    private String directory;
+
+    // Initial capacity of a day segment; it doubles whenever it fills up
+    @Value("${stock.history.segment-initial-records:65536}")
+    private int initialRecords;
+
+    private Path root;
+    private final Map<String, Integer> symbolIds = new ConcurrentHashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+    private volatile Segment current;
+    // Quote fetches hand their ticks to this thread, so file writes and segment rollover never run
+    // on a reactor event loop or the monitor's fetch threads; one thread keeps arrival order
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("price-history-writer").daemon().factory());
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        root = Paths.get(directory);
+        try {
+            Files.createDirectories(root.resolve(TICKS));
+            for (HistoryResolution resolution : HistoryResolution.values()) {
+                if (resolution != HistoryResolution.TICK) {
+                    Files.createDirectories(root.resolve(resolution.getCode()));
+                }
+            }
+            Path symbolFile = root.resolve("symbols.txt");
+            if (Files.exists(symbolFile)) {
+                for (String symbol : Files.readAllLines(symbolFile, StandardCharsets.UTF_8)) {
+                    symbolIds.put(symbol, symbols.size());
+                    symbols.add(symbol);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot open price history directory: " + root.toAbsolutePath(), e);
+        }
+        logger.info("Storing price history in {} ({} known symbols)", root.toAbsolutePath(), symbols.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Returns at once; the tick is written shortly after by the writer thread
+    public void appendLater(Quote quote) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            writer.execute(() -> append(quote));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Price history closed, dropping tick for {}", quote.symbol());
+        }
+    }
+
+    public synchronized void append(Quote quote) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long time = quote.fetchedAt().toEpochMilli();
+            LocalDate day = dayOf(time);
+            Segment segment = current;
+            if (segment == null || !segment.day.equals(day)) {
+                if (segment != null) {
+                    segment.close();
+                }
+                segment = Segment.open(tickFile(day), day, initialRecords);
+                current = segment;
+            }
+            segment.append(registerSymbol(quote.symbol()), time, ThresholdIndex.toFixed(quote.price()));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to append price history for {}: {}", quote.symbol(), e.getMessage());
+        }
+    }
+
+    // -1 for symbols never recorded
+    public int symbolId(String symbol) {
+        return symbolIds.getOrDefault(symbol, -1);
+    }
+
+    public List<LocalDate> tickDays() {
+        try (Stream<Path> files = Files.list(root.resolve(TICKS))) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> LocalDate.parse(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot list price history segments", e);
+        }
+    }
+
+    public boolean hasTicks(LocalDate day) {
+        return Files.exists(tickFile(day));
+    }
+
+    public long tickCount(LocalDate day) {
+        Segment segment = current;
+        if (segment != null && segment.day.equals(day)) {
+            return segment.count;
+        }
+        ByteBuffer buffer = mapReadOnly(tickFile(day));
+        return buffer == null ? 0 : records(buffer, TICK_BYTES);
+    }
+
+    // Visits at most the first limit ticks of the day
+    public void forEachTick(LocalDate day, long limit, TickVisitor visitor) {
+        forEachTick(day, 0, limit, visitor);
+    }
+
+    // Visits the ticks with index in [from, limit)
+    public void forEachTick(LocalDate day, long from, long limit, TickVisitor visitor) {
+        ByteBuffer buffer;
+        long count;
+        Segment segment = current;
+        if (segment != null && segment.day.equals(day)) {
+            // Count before buffer: a record is fully written before the count covers it
+            count = segment.count;
+            buffer = segment.buffer;
+        } else {
+            buffer = mapReadOnly(tickFile(day));
+            count = buffer == null ? 0 : records(buffer, TICK_BYTES);
+        }
+
+        long end = Math.min(count, limit);
+        for (long i = from; i < end; i++) {
+            int offset = (int) (HEADER_BYTES + i * TICK_BYTES);
+            visitor.visit(buffer.getInt(offset), buffer.getLong(offset + 4), buffer.getLong(offset + 12));
+        }
+    }
+
+    public synchronized void deleteTicks(LocalDate day) {
+        if (current != null && current.day.equals(day)) {
+            current.close();
+            current = null;
+        }
+        try {
+            Files.deleteIfExists(tickFile(day));
+        } catch (IOException e) {
+            logger.warn("Failed to delete price history segment {}: {}", day, e.getMessage());
+        }
+    }
+
+    // Tick count the rollup was built from, or -1 when there is none
+    public long rollupSourceCount(HistoryResolution resolution, LocalDate day) {
+        ByteBuffer buffer = mapReadOnly(rollupFile(resolution, day));
+        return buffer == null ? -1 : buffer.getLong(0);
+    }
+
+    // Bars must be sorted by symbol id, then bucket start
+    public void writeBars(HistoryResolution resolution, LocalDate day, List<PriceBar> bars, long sourceCount) {
+        Path file = rollupFile(resolution, day);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bars.size() * BAR_BYTES);
+        buffer.putLong(sourceCount);
+        for (PriceBar bar : bars) {
+            buffer.putInt(bar.symbolId()).putLong(bar.start())
+                    .putLong(bar.open()).putLong(bar.high()).putLong(bar.low()).putLong(bar.close())
+                    .putInt(bar.ticks());
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write price rollup " + file, e);
+        }
+
+        try {
+            // Readers see either the previous rollup or the complete new one
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot replace price rollup " + file, e);
+        }
+    }
+
+    // Visits one symbol's bars with start in [from, to)
+    public void forEachBar(HistoryResolution resolution, LocalDate day, int symbolId, long from, long to,
+                           Consumer<PriceBar> visitor) {
+        ByteBuffer buffer = mapReadOnly(rollupFile(resolution, day));
+        if (buffer == null) {
+            return;
+        }
+
+        long count = records(buffer, BAR_BYTES);
+        long low = 0;
+        long high = count;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            int offset = (int) (HEADER_BYTES + mid * BAR_BYTES);
+            int midSymbol = buffer.getInt(offset);
+            if (midSymbol < symbolId || (midSymbol == symbolId && buffer.getLong(offset + 4) < from)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        for (long i = low; i < count; i++) {
+            int offset = (int) (HEADER_BYTES + i * BAR_BYTES);
+            long start = buffer.getLong(offset + 4);
+            if (buffer.getInt(offset) != symbolId || start >= to) {
+                break;
+            }
+            visitor.accept(new PriceBar(symbolId, start, buffer.getLong(offset + 12), buffer.getLong(offset + 20),
+                    buffer.getLong(offset + 28), buffer.getLong(offset + 36), buffer.getInt(offset + 44)));
+        }
+    }
+
+    static LocalDate dayOf(long epochMillis) {
+        return LocalDate.ofEpochDay(Math.floorDiv(epochMillis, 86_400_000L));
+    }
+
+    static long startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    // Waits for queued ticks before closing the segment, outside the lock the writer needs
+    @PreDestroy
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeSegment();
+    }
+
+    private synchronized void closeSegment() {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+
+    private int registerSymbol(String symbol) throws IOException {
+        Integer id = symbolIds.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        // Ids are line numbers, so the file is only ever appended to
+        Files.writeString(root.resolve("symbols.txt"), symbol + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        id = symbols.size();
+        symbols.add(symbol);
+        symbolIds.put(symbol, id);
+        return id;
+    }
+
+    private Path tickFile(LocalDate day) {
+        return root.resolve(TICKS).resolve(day + SUFFIX);
+    }
+
+    private Path rollupFile(HistoryResolution resolution, LocalDate day) {
+        return root.resolve(resolution.getCode()).resolve(day + SUFFIX);
+    }
+
+    private static long records(ByteBuffer buffer, int recordBytes) {
+        // A crash can leave the header ahead of or behind the data; trust neither beyond the file size
+        return Math.max(0, Math.min(buffer.getLong(0), (buffer.capacity() - HEADER_BYTES) / recordBytes));
+    }
+
+    private static ByteBuffer mapReadOnly(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return null;
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read price history file " + file, e);
+        }
+    }
+
+    // The day segment being appended to; only the owning store's lock writes to it
+    private static final class Segment {
+        private final LocalDate day;
+        private final FileChannel channel;
+        private volatile MappedByteBuffer buffer;
+        private volatile long count;
+
+        private Segment(LocalDate day, FileChannel channel, MappedByteBuffer buffer) {
+            this.day = day;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.count = records(buffer, TICK_BYTES);
+        }
+
+        static Segment open(Path file, LocalDate day, int initialRecords) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long size = Math.max(channel.size(), HEADER_BYTES + (long) initialRecords * TICK_BYTES);
+            return new Segment(day, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        void append(int symbolId, long epochMillis, long price) throws IOException {
+            long offset = HEADER_BYTES + count * TICK_BYTES;
+            MappedByteBuffer target = buffer;
+            if (offset + TICK_BYTES > target.capacity()) {
+                long size = Math.min(Integer.MAX_VALUE, (long) target.capacity() * 2);
+                if (offset + TICK_BYTES > size) {
+                    throw new RuntimeException("Price history segment " + day + " is full");
+                }
+                target = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer = target;
+            }
+            int position = (int) offset;
+            target.putInt(position, symbolId);
+            target.putLong(position + 4, epochMillis);
+            target.putLong(position + 12, price);
+            target.putLong(0, count + 1);
+            count = count + 1;
+        }
+
+        void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close price history segment {}: {}", day, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+// volume, change and latestTradingDay are null when the source does not report them
+public record Quote(String symbol, BigDecimal price, Long volume, BigDecimal change,
+                    LocalDate latestTradingDay, Instant fetchedAt) {
+
+    public Quote(String symbol, BigDecimal price, Instant fetchedAt) {
+        this(symbol, price, null, null, null, fetchedAt);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.service;
+
+// Our own daily quote budget ran out; unlike QuoteThrottledException the provider never saw the request
+public class QuoteBudgetExhaustedException extends RuntimeException {
+
+    public QuoteBudgetExhaustedException(String message) {
+        super(message);
+    }
+}
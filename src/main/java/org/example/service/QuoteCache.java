@@ -0,0 +1,118 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class QuoteCache {
+
+    @Autowired
+    private StockPriceService stockPriceService;
+
+    @Autowired
+    private ThresholdIndex thresholdIndex;
+
+    @Autowired
+    private UserQuoteLimiter userQuoteLimiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${stock.quote.cache.ttl:60000}")
+    private long ttl;
+
+    @Value("${stock.quote.cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<String, Quote> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "quotes");
+    }
+
+    // Fetched outside the cache: a loader would hold Caffeine's map lock through the upstream call
+    // and the rate limiter's wait, pinning virtual threads and blocking other symbols. Two threads
+    // missing the same symbol may both fetch it.
+    public Quote getQuote(String symbol) {
+        Quote cached = cache.getIfPresent(symbol);
+        return cached != null ? cached : store(stockPriceService.getQuote(symbol));
+    }
+
+    public Mono<Quote> getQuoteAsync(String symbol) {
+        Quote cached = cache.getIfPresent(symbol);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return stockPriceService.getQuoteAsync(symbol).map(this::store);
+    }
+
+    // Cached symbols are served as-is, the rest go upstream through one batch call
+    public Map<String, Quote> getQuotes(Collection<String> symbols) {
+        Map<String, Quote> quotes = new LinkedHashMap<>(cache.getAllPresent(symbols));
+
+        List<String> missing = new ArrayList<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            if (!quotes.containsKey(symbol)) {
+                missing.add(symbol);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            stockPriceService.getQuotes(missing).forEach((symbol, quote) -> quotes.put(symbol, store(quote)));
+        }
+
+        return quotes;
+    }
+
+    // For user requests: only symbols someone watches may go upstream, and only as many as the
+    // user's allowance has left. Anything else is answered from the cache or left out.
+    public Map<String, Quote> getQuotesForUser(Long userId, Collection<String> symbols) {
+        Map<String, Quote> quotes = new LinkedHashMap<>(cache.getAllPresent(symbols));
+
+        List<String> missing = new ArrayList<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            if (!quotes.containsKey(symbol) && thresholdIndex.watchCount(symbol) > 0) {
+                missing.add(symbol);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            int granted = userQuoteLimiter.acquire(userId, missing.size());
+            stockPriceService.getInteractiveQuotes(missing.subList(0, granted)).forEach((symbol, quote) -> quotes.put(symbol, store(quote)));
+        }
+
+        return quotes;
+    }
+
+    // Never goes upstream; used where showing a recent price is enough
+    public Optional<Quote> peek(String symbol) {
+        return Optional.ofNullable(cache.getIfPresent(symbol));
+    }
+
+    private Quote store(Quote quote) {
+        cache.put(quote.symbol(), quote);
+        return quote;
+    }
+}
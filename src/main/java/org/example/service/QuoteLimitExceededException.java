@@ -0,0 +1,16 @@
+package org.example.service;
+
+// A user asked for more upstream quotes than their allowance; answered with 429 and a Retry-After
+public class QuoteLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public QuoteLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
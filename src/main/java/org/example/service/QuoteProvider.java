@@ -0,0 +1,25 @@
+package org.example.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+public interface QuoteProvider {
+
+    Mono<Quote> fetchQuote(String symbol);
+
+    // Providers without a multi-symbol endpoint resolve each symbol separately;
+    // symbols that fail are left out of the result
+    default Mono<Map<String, Quote>> fetchQuotes(List<String> symbols) {
+        return Flux.fromIterable(symbols)
+                .concatMap(symbol -> fetchQuote(symbol).onErrorResume(e -> Mono.empty()))
+                .collectMap(Quote::symbol);
+    }
+
+    // Symbols per fetchQuotes call; 1 means callers should use fetchQuote
+    default int maxBatchSize() {
+        return 1;
+    }
+}
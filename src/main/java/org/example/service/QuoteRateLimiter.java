@@ -0,0 +1,158 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class QuoteRateLimiter {
+
+    private static final long NANOS_PER_MINUTE = Duration.ofMinutes(1).toNanos();
+    private static final long NANOS_PER_DAY = Duration.ofDays(1).toNanos();
+
+    // 0 disables the corresponding budget
+    @Value("${stock.api.quota.per-minute:0}")
+    private int perMinute;
+
+    @Value("${stock.api.quota.per-day:0}")
+    private int perDay;
+
+    @Value("${stock.api.quota.burst:1}")
+    private int burst;
+
+    // Share of the per-minute quota kept for requests a user is waiting on
+    @Value("${stock.api.quota.interactive-per-minute:1}")
+    private int interactivePerMinute;
+
+    @Value("${stock.api.quota.throttle-penalty:60000}")
+    private long throttlePenalty;
+
+    private TokenBucket minuteBucket;
+    private TokenBucket interactiveBucket;
+    private TokenBucket dayBucket;
+
+    private long pacingNanos;
+    private long nextPacedSlot;
+
+    @PostConstruct
+    public void init() {
+        long now = System.nanoTime();
+        if (perMinute > 0) {
+            int monitorPerMinute = perMinute;
+            if (interactivePerMinute > 0 && interactivePerMinute < perMinute) {
+                monitorPerMinute -= interactivePerMinute;
+                interactiveBucket = new TokenBucket(interactivePerMinute, (double) interactivePerMinute / NANOS_PER_MINUTE, now);
+            }
+            minuteBucket = new TokenBucket(Math.max(1, burst), (double) monitorPerMinute / NANOS_PER_MINUTE, now);
+        }
+        if (perDay > 0) {
+            dayBucket = new TokenBucket(perDay, (double) perDay / NANOS_PER_DAY, now);
+        }
+    }
+
+    public boolean isEnabled() {
+        return minuteBucket != null || dayBucket != null;
+    }
+
+    // Claims one request and returns how long the caller must wait before sending it
+    public synchronized Duration reserve() {
+        long now = System.nanoTime();
+        takeDaily(now);
+
+        long wait = minuteBucket != null ? minuteBucket.take(now) : 0;
+
+        if (pacingNanos > 0) {
+            long slot = Math.max(now + wait, nextPacedSlot);
+            nextPacedSlot = slot + pacingNanos;
+            wait = slot - now;
+        }
+
+        return Duration.ofNanos(wait);
+    }
+
+    // Like reserve(), but never queued behind the monitor's paced slots
+    public synchronized Duration reserveInteractive() {
+        long now = System.nanoTime();
+        takeDaily(now);
+
+        TokenBucket bucket = interactiveBucket != null ? interactiveBucket : minuteBucket;
+        return Duration.ofNanos(bucket != null ? bucket.take(now) : 0);
+    }
+
+    private void takeDaily(long now) {
+        if (dayBucket != null) {
+            if (dayBucket.available(now) < 1) {
+                throw new QuoteBudgetExhaustedException("Daily quote budget exhausted");
+            }
+            dayBucket.take(now);
+        }
+    }
+
+    // Number of requests that can be issued within the window without exceeding either budget
+    public synchronized int availableWithin(Duration window) {
+        long now = System.nanoTime();
+        double available = Integer.MAX_VALUE;
+
+        if (minuteBucket != null) {
+            available = Math.min(available, minuteBucket.available(now) + window.toNanos() * minuteBucket.refillPerNano);
+        }
+        if (dayBucket != null) {
+            available = Math.min(available, dayBucket.available(now));
+        }
+
+        return (int) Math.max(0, Math.floor(available));
+    }
+
+    // Spaces the next requests evenly across the window instead of letting them burst
+    public synchronized void spreadAcross(int plannedRequests, Duration window) {
+        pacingNanos = plannedRequests > 0 ? window.toNanos() / plannedRequests : 0;
+        nextPacedSlot = System.nanoTime();
+    }
+
+    public synchronized void stopSpreading() {
+        pacingNanos = 0;
+    }
+
+    // Upstream reported throttling: hold back further requests for the penalty period
+    public synchronized void onThrottled() {
+        long now = System.nanoTime();
+        penalise(minuteBucket, now);
+        penalise(interactiveBucket, now);
+    }
+
+    private void penalise(TokenBucket bucket, long now) {
+        if (bucket != null) {
+            bucket.available(now);
+            bucket.tokens = Math.min(bucket.tokens, -Duration.ofMillis(throttlePenalty).toNanos() * bucket.refillPerNano);
+        }
+    }
+
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(double capacity, double refillPerNano, long now) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerNano;
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        private double available(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+            return tokens;
+        }
+
+        // Takes a token, going into debt if needed, and returns the nanos until that debt is repaid
+        private long take(long now) {
+            available(now);
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / refillPerNano);
+        }
+    }
+}
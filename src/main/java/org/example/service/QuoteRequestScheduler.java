@@ -0,0 +1,84 @@
+package org.example.service;
+
+import org.example.dto.SymbolThresholdBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class QuoteRequestScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteRequestScheduler.class);
+
+    @Autowired
+    private QuoteRateLimiter rateLimiter;
+
+    @Value("${stock.api.quota.spread-requests:true}")
+    private boolean spreadRequests;
+
+    private final Map<String, BigDecimal> lastPrices = new ConcurrentHashMap<>();
+
+    // Orders symbols by distance to their nearest threshold and trims them to what the quota allows in the window
+    public List<String> plan(List<SymbolThresholdBounds> bounds, int symbolsPerRequest, Duration window) {
+        List<SymbolThresholdBounds> ordered = new ArrayList<>(bounds);
+        ordered.sort(Comparator.comparingDouble(b -> distanceToThreshold(lastPrices.get(b.getSymbol()), b)));
+
+        int planned = ordered.size();
+
+        if (rateLimiter.isEnabled()) {
+            long budget = (long) rateLimiter.availableWithin(window) * Math.max(1, symbolsPerRequest);
+            if (budget < planned) {
+                logger.warn("Quote budget allows {} of {} symbols this cycle, deferring the ones furthest from a threshold",
+                           budget, planned);
+                planned = (int) budget;
+            }
+            if (spreadRequests) {
+                int requests = (planned + Math.max(1, symbolsPerRequest) - 1) / Math.max(1, symbolsPerRequest);
+                rateLimiter.spreadAcross(requests, window);
+            }
+        }
+
+        List<String> symbols = new ArrayList<>(planned);
+        for (int i = 0; i < planned; i++) {
+            symbols.add(ordered.get(i).getSymbol());
+        }
+        return symbols;
+    }
+
+    public void finishCycle() {
+        rateLimiter.stopSpreading();
+    }
+
+    public void recordPrice(String symbol, BigDecimal price) {
+        lastPrices.put(symbol, price);
+    }
+
+    // Relative distance from the price to the closest min/max threshold; 0 when unknown or already crossed
+    static double distanceToThreshold(BigDecimal price, SymbolThresholdBounds bounds) {
+        if (price == null || price.signum() <= 0) {
+            return 0;
+        }
+
+        double current = price.doubleValue();
+        double distance = Double.MAX_VALUE;
+
+        if (bounds.getHighestMinPrice() != null) {
+            distance = Math.min(distance, Math.max(0, current - bounds.getHighestMinPrice().doubleValue()) / current);
+        }
+        if (bounds.getLowestMaxPrice() != null) {
+            distance = Math.min(distance, Math.max(0, bounds.getLowestMaxPrice().doubleValue() - current) / current);
+        }
+
+        return distance;
+    }
+}
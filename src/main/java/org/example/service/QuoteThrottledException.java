@@ -0,0 +1,8 @@
+package org.example.service;
+
+public class QuoteThrottledException extends RuntimeException {
+
+    public QuoteThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Appends every quote the delegate returns as "epochMillis,symbol,price", the format ReplayQuoteProvider reads.
+// Lines are written by one background thread, so the fetch that produced them never waits on the file.
+public class RecordingQuoteProvider implements QuoteProvider, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordingQuoteProvider.class);
+
+    private final QuoteProvider delegate;
+    private final BufferedWriter writer;
+    private final ExecutorService recorder = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("quote-recorder").daemon().factory());
+
+    public RecordingQuoteProvider(QuoteProvider delegate, Path file) {
+        this.delegate = delegate;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot open quote recording file: " + file, e);
+        }
+        logger.info("Recording quotes to {}", file.toAbsolutePath());
+    }
+
+    @Override
+    public Mono<Quote> fetchQuote(String symbol) {
+        return delegate.fetchQuote(symbol).doOnNext(this::record);
+    }
+
+    @Override
+    public Mono<Map<String, Quote>> fetchQuotes(List<String> symbols) {
+        return delegate.fetchQuotes(symbols).doOnNext(quotes -> quotes.values().forEach(this::record));
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return delegate.maxBatchSize();
+    }
+
+    private void record(Quote quote) {
+        try {
+            recorder.execute(() -> write(quote));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Quote recording closed, dropping quote for {}", quote.symbol());
+        }
+    }
+
+    private synchronized void write(Quote quote) {
+        try {
+            writer.write(quote.fetchedAt().toEpochMilli() + "," + quote.symbol() + "," + quote.price().toPlainString());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to record quote for {}: {}", quote.symbol(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        recorder.shutdown();
+        try {
+            recorder.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Serves quotes captured by RecordingQuoteProvider. Recorded time advances `speed` times faster
+// than wall time from the moment the provider is created; each symbol answers with its latest
+// recorded price at or before the replay position. Quotes are stamped with the wall time they are
+// served at, not the recorded one, so history and poll sampling see time move forward even when
+// the recording loops.
+public class ReplayQuoteProvider implements QuoteProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayQuoteProvider.class);
+
+    // Nothing goes upstream, so a whole cycle can be answered in a few calls
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final Map<String, Series> series;
+    private final long recordingStart;
+    private final long recordingEnd;
+    private final double speed;
+    private final boolean loop;
+    private final LongSupplier clock;
+    private final long replayStart;
+
+    public ReplayQuoteProvider(Path file, double speed, boolean loop) {
+        this(file, speed, loop, System::currentTimeMillis);
+    }
+
+    ReplayQuoteProvider(Path file, double speed, boolean loop, LongSupplier clock) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("Replay speed must be positive: " + speed);
+        }
+        this.series = load(file);
+        if (series.isEmpty()) {
+            throw new RuntimeException("No quotes found in replay file: " + file);
+        }
+        this.recordingStart = series.values().stream().mapToLong(s -> s.times[0]).min().getAsLong();
+        this.recordingEnd = series.values().stream().mapToLong(s -> s.times[s.times.length - 1]).max().getAsLong();
+        this.speed = speed;
+        this.loop = loop;
+        this.clock = clock;
+        this.replayStart = clock.getAsLong();
+
+        logger.info("Replaying {} symbols from {} at {}x speed", series.size(), file.toAbsolutePath(), speed);
+    }
+
+    @Override
+    public Mono<Quote> fetchQuote(String symbol) {
+        return Mono.fromSupplier(() -> {
+            Quote quote = quoteAt(symbol, position(), Instant.ofEpochMilli(clock.getAsLong()));
+            if (quote == null) {
+                throw new RuntimeException("No recorded quotes for symbol: " + symbol);
+            }
+            return quote;
+        });
+    }
+
+    @Override
+    public Mono<Map<String, Quote>> fetchQuotes(List<String> symbols) {
+        return Mono.fromSupplier(() -> {
+            long position = position();
+            Instant servedAt = Instant.ofEpochMilli(clock.getAsLong());
+            Map<String, Quote> quotes = new LinkedHashMap<>();
+            for (String symbol : symbols) {
+                Quote quote = quoteAt(symbol, position, servedAt);
+                if (quote != null) {
+                    quotes.put(symbol, quote);
+                }
+            }
+            return quotes;
+        });
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    long position() {
+        long elapsed = (long) ((clock.getAsLong() - replayStart) * speed);
+        long span = recordingEnd - recordingStart + 1;
+        if (loop) {
+            elapsed %= span;
+        }
+        return recordingStart + Math.min(elapsed, span - 1);
+    }
+
+    private Quote quoteAt(String symbol, long position, Instant servedAt) {
+        Series symbolSeries = series.get(symbol);
+        if (symbolSeries == null) {
+            return null;
+        }
+        // Before its first tick a symbol already answers with its first recorded price
+        int index = Math.max(0, symbolSeries.latestAtOrBefore(position));
+        return new Quote(symbol, symbolSeries.prices[index], servedAt);
+    }
+
+    private static Map<String, Series> load(Path file) {
+        Map<String, List<Tick>> rows = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                Tick tick = fields.length == 3 ? Tick.parse(fields[0], fields[2]) : null;
+                if (tick == null) {
+                    logger.warn("Skipping malformed line {} in {}", lineNumber, file);
+                    continue;
+                }
+                rows.computeIfAbsent(fields[1].trim(), symbol -> new ArrayList<>()).add(tick);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read replay file: " + file, e);
+        }
+
+        Map<String, Series> loaded = new HashMap<>();
+        rows.forEach((symbol, ticks) -> loaded.put(symbol, Series.of(ticks)));
+        return loaded;
+    }
+
+    private record Tick(long time, BigDecimal price) {
+
+        // Null when either field is not a number
+        private static Tick parse(String time, String price) {
+            try {
+                return new Tick(Long.parseLong(time.trim()), new BigDecimal(price.trim()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Series {
+        private final long[] times;
+        private final BigDecimal[] prices;
+
+        private Series(long[] times, BigDecimal[] prices) {
+            this.times = times;
+            this.prices = prices;
+        }
+
+        private static Series of(List<Tick> ticks) {
+            ticks.sort(Comparator.comparingLong(Tick::time));
+
+            long[] times = new long[ticks.size()];
+            BigDecimal[] prices = new BigDecimal[ticks.size()];
+            for (int i = 0; i < ticks.size(); i++) {
+                times[i] = ticks.get(i).time();
+                prices[i] = ticks.get(i).price();
+            }
+            return new Series(times, prices);
+        }
+
+        // Last index whose time is <= position, or -1
+        private int latestAtOrBefore(long position) {
+            int low = 0;
+            int high = times.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] <= position) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+    }
+}
@@ -1,88 +1,299 @@
 package org.example.service;
 
-import org.example.entity.Alert;
-import org.example.entity.WatchedStock;
+import org.example.dto.SymbolThresholdBounds;
+import org.example.dto.WatchThresholdRow;
 import org.example.repository.WatchedStockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 @Service
 public class StockMonitoringService {
 
     private static final Logger logger = LoggerFactory.getLogger(StockMonitoringService.class);
 
+    private static final String MODE_REACTIVE = "reactive";
+    private static final String MODE_VIRTUAL_THREADS = "virtual-threads";
+
     @Autowired
     private WatchedStockRepository watchedStockRepository;
 
+    @Autowired
+    private ThresholdIndex thresholdIndex;
+
+    @Autowired
+    private AlertTriggerState alertTriggerState;
+
     @Autowired
     private StockPriceService stockPriceService;
 
+    @Autowired
+    private QuoteCache quoteCache;
+
     @Autowired
     private AlertService alertService;
 
-    @Scheduled(fixedDelayString = "${stock.api.fetch-interval}")
+    @Autowired
+    private QuoteRequestScheduler quoteRequestScheduler;
+
+    @Autowired
+    private AdaptivePollScheduler adaptivePollScheduler;
+
+    @Autowired
+    private EventStreamHub eventStreamHub;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @Value("${stock.monitor.tick-interval:${stock.api.fetch-interval}}")
+    private long tickInterval;
+
+    // The index is kept current by watchlist mutations; the periodic rebuild reconciles
+    // it with changes made outside this instance
+    @Value("${stock.monitor.index-refresh-interval:3600000}")
+    private long indexRefreshInterval;
+
+    @Value("${stock.monitor.mode:sequential}")
+    private String mode;
+
+    @Value("${stock.monitor.concurrency:8}")
+    private int concurrency;
+
+    @Value("${stock.monitor.cycle-timeout:240000}")
+    private long cycleTimeout;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Fixed rate so that requests spread across the interval do not stretch the cycle period.
+    // With adaptive polling each tick only fetches the symbols that are due.
+    @Scheduled(fixedRateString = "${stock.monitor.tick-interval:${stock.api.fetch-interval}}")
     public void monitorStockPrices() {
-        logger.info("Starting stock price monitoring cycle");
+        logger.info("Starting stock price monitoring cycle ({} mode)", mode);
+
+        long startedAt = System.nanoTime();
+
+        refreshThresholdIndex();
+
+        List<SymbolThresholdBounds> bounds = thresholdIndex.symbolBounds();
+        List<SymbolThresholdBounds> due = adaptivePollScheduler.dueSymbols(bounds, System.currentTimeMillis());
+        Duration window = Duration.ofMillis(Math.min(tickInterval, cycleTimeout));
+        List<String> symbols = quoteRequestScheduler.plan(due, stockPriceService.getBatchSize(), window);
+
+        AlertBuffer alerts = new AlertBuffer();
+        CycleStats stats;
+        try {
+            if (MODE_REACTIVE.equalsIgnoreCase(mode)) {
+                stats = runReactiveCycle(symbols, alerts);
+            } else if (MODE_VIRTUAL_THREADS.equalsIgnoreCase(mode)) {
+                stats = runVirtualThreadCycle(symbols, alerts);
+            } else {
+                stats = runSequentialCycle(symbols, alerts);
+            }
+        } finally {
+            quoteRequestScheduler.finishCycle();
+            flushAlerts(alerts);
+            alertTriggerState.checkpoint();
+        }
 
-        List<WatchedStock> activeWatchedStocks = watchedStockRepository.findAllActive();
+        long elapsed = System.nanoTime() - startedAt;
+        meterRegistry.timer("stockwatch.monitor.cycle", "mode", mode.toLowerCase())
+                .record(elapsed, TimeUnit.NANOSECONDS);
 
-        for (WatchedStock watchedStock : activeWatchedStocks) {
+        // One upstream call per distinct symbol instead of one per watch
+        int savedCalls = Math.max(0, stats.evaluatedWatches() - stats.fetchedSymbols());
+
+        logger.info("Completed stock price monitoring cycle in {} ms: {} of {} symbols fetched ({} not due), {} watches evaluated, {} upstream calls saved",
+                   TimeUnit.NANOSECONDS.toMillis(elapsed), stats.fetchedSymbols(), bounds.size(),
+                   bounds.size() - due.size(), stats.evaluatedWatches(), savedCalls);
+    }
+
+    private CycleStats runSequentialCycle(List<String> symbols, AlertBuffer alerts) {
+        Map<String, Quote> quotes = quoteCache.getQuotes(symbols);
+
+        int fetchedSymbols = 0;
+        int evaluatedWatches = 0;
+
+        for (String symbol : symbols) {
+            Quote quote = quotes.get(symbol);
+            if (quote == null) {
+                continue;
+            }
             try {
-                monitorSingleStock(watchedStock);
+                evaluatedWatches += monitorSymbol(symbol, quote, alerts);
+                fetchedSymbols++;
             } catch (Exception e) {
-                logger.error("Error monitoring stock {}: {}", watchedStock.getSymbol(), e.getMessage());
+                logger.error("Error monitoring stock {}: {}", symbol, e.getMessage());
             }
         }
 
-        logger.info("Completed stock price monitoring cycle for {} stocks", activeWatchedStocks.size());
+        return new CycleStats(fetchedSymbols, evaluatedWatches);
+    }
+
+    private CycleStats runReactiveCycle(List<String> symbols, AlertBuffer alerts) {
+        AtomicInteger fetchedSymbols = new AtomicInteger();
+        AtomicInteger evaluatedWatches = new AtomicInteger();
+
+        // Fetches run concurrently on the WebClient event loop; evaluation hops to
+        // boundedElastic so it never blocks an event-loop thread
+        Flux.fromIterable(symbols)
+                .flatMap(symbol -> quoteCache.getQuoteAsync(symbol)
+                        .map(quote -> Map.entry(symbol, quote))
+                        .onErrorResume(e -> {
+                            logger.error("Failed to fetch price for {}: {}", symbol, e.getMessage());
+                            return Mono.empty();
+                        }), concurrency)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(entry -> {
+                    try {
+                        evaluatedWatches.addAndGet(monitorSymbol(entry.getKey(), entry.getValue(), alerts));
+                        fetchedSymbols.incrementAndGet();
+                    } catch (Exception e) {
+                        logger.error("Error monitoring stock {}: {}", entry.getKey(), e.getMessage());
+                    }
+                })
+                .take(Duration.ofMillis(cycleTimeout))
+                .doOnComplete(() -> {
+                    if (fetchedSymbols.get() < symbols.size()) {
+                        logger.warn("Monitoring cycle finished with {} of {} symbols processed (deadline {} ms)",
+                                   fetchedSymbols.get(), symbols.size(), cycleTimeout);
+                    }
+                })
+                .blockLast();
+
+        return new CycleStats(fetchedSymbols.get(), evaluatedWatches.get());
     }
 
-    private void monitorSingleStock(WatchedStock watchedStock) {
+    private CycleStats runVirtualThreadCycle(List<String> symbols, AlertBuffer alerts) {
+        AtomicInteger fetchedSymbols = new AtomicInteger();
+        AtomicInteger evaluatedWatches = new AtomicInteger();
+        Semaphore fetchPermits = new Semaphore(concurrency);
+
+        List<Callable<Void>> tasks = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            tasks.add(() -> {
+                fetchPermits.acquire();
+                try {
+                    Quote quote = quoteCache.getQuote(symbol);
+                    evaluatedWatches.addAndGet(monitorSymbol(symbol, quote, alerts));
+                    fetchedSymbols.incrementAndGet();
+                } catch (Exception e) {
+                    logger.error("Error monitoring stock {}: {}", symbol, e.getMessage());
+                } finally {
+                    fetchPermits.release();
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
         try {
-            BigDecimal currentPrice = stockPriceService.getCurrentPrice(watchedStock.getSymbol());
-
-            logger.debug("Current price for {} is {}", watchedStock.getSymbol(), currentPrice);
-
-            boolean alertTriggered = false;
-
-            if (watchedStock.getMinPrice() != null && currentPrice.compareTo(watchedStock.getMinPrice()) <= 0) {
-                alertService.createAlert(
-                    currentPrice,
-                    watchedStock.getMinPrice(),
-                    Alert.AlertType.MIN_PRICE_EXCEEDED,
-                    watchedStock.getUser(),
-                    watchedStock
-                );
-                alertTriggered = true;
-                logger.info("MIN_PRICE_EXCEEDED alert triggered for {} at price {}",
-                           watchedStock.getSymbol(), currentPrice);
+            // invokeAll cancels every task still running when the cycle deadline passes
+            List<Future<Void>> futures = executor.invokeAll(tasks, cycleTimeout, TimeUnit.MILLISECONDS);
+            long cancelled = futures.stream().filter(Future::isCancelled).count();
+            if (cancelled > 0) {
+                logger.warn("Monitoring cycle overran {} ms deadline, cancelled {} of {} symbols",
+                           cycleTimeout, cancelled, symbols.size());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Monitoring cycle interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
 
-            if (watchedStock.getMaxPrice() != null && currentPrice.compareTo(watchedStock.getMaxPrice()) >= 0) {
-                alertService.createAlert(
-                    currentPrice,
-                    watchedStock.getMaxPrice(),
-                    Alert.AlertType.MAX_PRICE_EXCEEDED,
-                    watchedStock.getUser(),
-                    watchedStock
-                );
-                alertTriggered = true;
-                logger.info("MAX_PRICE_EXCEEDED alert triggered for {} at price {}",
-                           watchedStock.getSymbol(), currentPrice);
-            }
+        return new CycleStats(fetchedSymbols.get(), evaluatedWatches.get());
+    }
 
-            if (!alertTriggered) {
-                logger.debug("No alerts triggered for {} at price {}", watchedStock.getSymbol(), currentPrice);
-            }
+    private int monitorSymbol(String symbol, Quote quote, AlertBuffer alerts) {
+        BigDecimal currentPrice = quote.price();
+        logger.debug("Current price for {} is {}", symbol, currentPrice);
+
+        long now = System.currentTimeMillis();
+        long sampledAt = quote.fetchedAt() != null ? quote.fetchedAt().toEpochMilli() : now;
+        quoteRequestScheduler.recordPrice(symbol, currentPrice);
+        adaptivePollScheduler.recordPrice(symbol, currentPrice, sampledAt, now);
+        eventStreamHub.publishPrice(symbol, currentPrice);
+
+        // Conditions that stay true across cycles alert only once, on the transition
+        List<ThresholdIndex.Trigger> triggers = alertTriggerState.transitions(symbol, currentPrice,
+                thresholdIndex.evaluate(symbol, currentPrice));
+
+        LocalDateTime triggeredAt = LocalDateTime.now();
+        for (ThresholdIndex.Trigger trigger : triggers) {
+            alerts.add(new TriggeredAlert(trigger.watchId(), trigger.userId(), symbol, trigger.type(),
+                    trigger.threshold(), currentPrice, triggeredAt));
+            logger.info("{} alert triggered for {} at price {}", trigger.type(), symbol, currentPrice);
+        }
 
-        } catch (Exception e) {
-            logger.error("Failed to fetch price for {}: {}", watchedStock.getSymbol(), e.getMessage());
+        if (triggers.isEmpty()) {
+            logger.debug("No alerts triggered for {} at price {}", symbol, currentPrice);
         }
+
+        return thresholdIndex.watchCount(symbol);
     }
+
+    private void flushAlerts(AlertBuffer alerts) {
+        List<TriggeredAlert> pending = alerts.drain();
+        if (pending.isEmpty()) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        List<TriggeredAlert> failed = alertService.saveBatch(pending);
+        // Unsaved alerts re-arm their side before the checkpoint, so the next cycle raises them again
+        failed.forEach(alertTriggerState::rearm);
+        logger.info("Persisted {} of {} alerts in {} ms", pending.size() - failed.size(), pending.size(),
+                   TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    private void refreshThresholdIndex() {
+        if (System.currentTimeMillis() - thresholdIndex.getRebuiltAt() < indexRefreshInterval) {
+            return;
+        }
+        // Rows are streamed into the index as they arrive, so heap use does not grow with the table
+        Integer count = readOnlyTransaction.execute(status -> {
+            try (Stream<WatchThresholdRow> rows = watchedStockRepository.streamAllActiveThresholds()) {
+                return thresholdIndex.rebuild(rows);
+            }
+        });
+        if (!alertTriggerState.isRestored()) {
+            alertTriggerState.restore(watchedStockRepository.findTriggeredThresholds());
+        }
+        logger.info("Rebuilt threshold index from {} active watches", count);
+    }
+
+    private record CycleStats(int fetchedSymbols, int evaluatedWatches) {}
 }
@@ -1,66 +1,118 @@
 package org.example.service;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 public class StockPriceService {
 
-    @Value("${stock.api.base-url}")
-    private String apiBaseUrl;
+    private static final Logger logger = LoggerFactory.getLogger(StockPriceService.class);
 
-    @Value("${stock.api.key}")
-    private String apiKey;
+    @Autowired
+    private QuoteProvider quoteProvider;
 
-    private final WebClient webClient;
+    @Autowired
+    private QuoteRateLimiter rateLimiter;
 
-    public StockPriceService() {
-        this.webClient = WebClient.builder().build();
-    }
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
 
     public BigDecimal getCurrentPrice(String symbol) {
-        try {
-            String url = String.format("%s/query?function=GLOBAL_QUOTE&symbol=%s&apikey=%s",
-                                     apiBaseUrl, symbol, apiKey);
-
-            Map<String, Object> response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-
-            if (response == null || !response.containsKey("Global Quote")) {
-                throw new RuntimeException("Invalid API response for symbol: " + symbol);
-            }
+        return getQuote(symbol).price();
+    }
 
-            Map<String, String> quote = (Map<String, String>) response.get("Global Quote");
-            String priceStr = quote.get("05. price");
+    public Quote getQuote(String symbol) {
+        return getQuoteAsync(symbol).block();
+    }
 
-            if (priceStr == null || priceStr.isEmpty()) {
-                throw new RuntimeException("Price not found for symbol: " + symbol);
-            }
+    public Mono<Quote> getQuoteAsync(String symbol) {
+        return fetchQuote(symbol, false);
+    }
 
-            return new BigDecimal(priceStr);
+    private Mono<Quote> fetchQuote(String symbol, boolean interactive) {
+        return limited(() -> quoteProvider.fetchQuote(symbol), interactive).doOnNext(priceHistoryStore::appendLater);
+    }
+
+    public int getBatchSize() {
+        return Math.max(1, quoteProvider.maxBatchSize());
+    }
 
-        } catch (WebClientResponseException e) {
-            throw new RuntimeException("Failed to fetch price for symbol: " + symbol + ". Error: " + e.getMessage());
-        } catch (Exception e) {
-            if (symbol.equals("DEMO") || apiKey.equals("demo")) {
-                return generateMockPrice(symbol);
+    // Every provider call claims a slot from the quota limiter before it is sent. Only throttling
+    // reported by the provider penalises the limiter, not running out of our own budget.
+    private <T> Mono<T> limited(Supplier<Mono<T>> call, boolean interactive) {
+        return Mono.defer(() -> {
+            Duration wait = interactive ? rateLimiter.reserveInteractive() : rateLimiter.reserve();
+            Mono<T> request = call.get();
+            return wait.isZero() ? request : Mono.delay(wait).then(request);
+        }).doOnError(QuoteThrottledException.class, e -> rateLimiter.onThrottled());
+    }
+
+    // Symbols whose price could not be resolved are left out of the returned map
+    public Map<String, Quote> getQuotes(Collection<String> symbols) {
+        return getQuotes(symbols, false);
+    }
+
+    // For requests a user is waiting on: they skip the monitor's pacing and use the interactive share of the quota
+    public Map<String, Quote> getInteractiveQuotes(Collection<String> symbols) {
+        return getQuotes(symbols, true);
+    }
+
+    private Map<String, Quote> getQuotes(Collection<String> symbols, boolean interactive) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(symbols));
+        Map<String, Quote> quotes = new LinkedHashMap<>();
+
+        int batchSize = getBatchSize();
+        boolean throttled = false;
+
+        if (batchSize > 1) {
+            for (int from = 0; from < distinct.size() && !throttled; from += batchSize) {
+                List<String> chunk = distinct.subList(from, Math.min(from + batchSize, distinct.size()));
+                try {
+                    Map<String, Quote> fetched = limited(() -> quoteProvider.fetchQuotes(chunk), interactive).block();
+                    if (fetched != null) {
+                        fetched.values().forEach(priceHistoryStore::appendLater);
+                        quotes.putAll(fetched);
+                    }
+                } catch (QuoteThrottledException | QuoteBudgetExhaustedException e) {
+                    throttled = true;
+                    logger.warn("Bulk quote request throttled: {}", e.getMessage());
+                } catch (Exception e) {
+                    logger.warn("Bulk quote request for {} symbols failed, falling back to single quotes: {}",
+                               chunk.size(), e.getMessage());
+                }
+            }
+        }
+
+        for (String symbol : distinct) {
+            if (throttled) {
+                logger.warn("Quote requests throttled, skipping {} remaining symbols", distinct.size() - quotes.size());
+                break;
+            }
+            if (quotes.containsKey(symbol)) {
+                continue;
+            }
+            try {
+                quotes.put(symbol, fetchQuote(symbol, interactive).block());
+            } catch (QuoteThrottledException | QuoteBudgetExhaustedException e) {
+                throttled = true;
+            } catch (Exception e) {
+                logger.error("Failed to fetch price for {}: {}", symbol, e.getMessage());
             }
-            throw new RuntimeException("Error fetching price for symbol: " + symbol + ". " + e.getMessage());
         }
-    }
 
-    private BigDecimal generateMockPrice(String symbol) {
-        int hash = symbol.hashCode();
-        double basePrice = 50 + (hash % 200);
-        double variation = (System.currentTimeMillis() % 10000) / 100.0 - 50;
-        return BigDecimal.valueOf(Math.max(1.0, basePrice + variation)).setScale(2, BigDecimal.ROUND_HALF_UP);
+        return quotes;
     }
 }
@@ -0,0 +1,243 @@
+package org.example.service;
+
+import org.example.dto.SymbolThresholdBounds;
+import org.example.dto.WatchThresholdRow;
+import org.example.entity.Alert;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Per-symbol min/max thresholds kept in sorted fixed-point arrays, so a price
+// finds exactly the triggered watches with one binary search per side.
+@Component
+public class ThresholdIndex {
+
+    static final int SCALE = 4;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private volatile Map<String, SymbolIndex> bySymbol = new ConcurrentHashMap<>();
+    private final AtomicLong mutations = new AtomicLong();
+    private volatile long rebuiltAt;
+
+    public record Trigger(long watchId, long userId, Alert.AlertType type, BigDecimal threshold) {}
+
+    // Rows must arrive grouped by symbol; only the entries of the symbol being read are buffered
+    public int rebuild(Stream<WatchThresholdRow> rows) {
+        long before = mutations.get();
+
+        Map<String, SymbolIndex> rebuilt = new ConcurrentHashMap<>();
+        List<Entry> entries = new ArrayList<>();
+        String symbol = null;
+        int count = 0;
+
+        for (Iterator<WatchThresholdRow> it = rows.iterator(); it.hasNext(); ) {
+            WatchThresholdRow row = it.next();
+            if (!row.getSymbol().equals(symbol)) {
+                addSymbol(rebuilt, symbol, entries);
+                symbol = row.getSymbol();
+            }
+            entries.add(Entry.of(row));
+            count++;
+        }
+        addSymbol(rebuilt, symbol, entries);
+
+        bySymbol = rebuilt;
+        // A watch mutated while rows were loading may be missing; leave the index stale so it is rebuilt again
+        rebuiltAt = mutations.get() == before ? System.currentTimeMillis() : 0;
+        return count;
+    }
+
+    private static void addSymbol(Map<String, SymbolIndex> rebuilt, String symbol, List<Entry> entries) {
+        if (symbol == null || entries.isEmpty()) {
+            return;
+        }
+        Entry[] added = entries.toArray(new Entry[0]);
+        entries.clear();
+        SymbolIndex existing = rebuilt.get(symbol);
+        if (existing != null) {
+            // Out of order input still works, at the cost of a re-sort
+            Entry[] merged = Arrays.copyOf(existing.entries, existing.entries.length + added.length);
+            System.arraycopy(added, 0, merged, existing.entries.length, added.length);
+            added = merged;
+        }
+        rebuilt.put(symbol, new SymbolIndex(added));
+    }
+
+    public long getRebuiltAt() {
+        return rebuiltAt;
+    }
+
+    public void upsert(WatchThresholdRow row) {
+        mutations.incrementAndGet();
+        Entry entry = Entry.of(row);
+        bySymbol.compute(row.getSymbol(), (symbol, current) ->
+                current == null ? new SymbolIndex(new Entry[] {entry}) : current.with(entry));
+    }
+
+    public void remove(String symbol, long watchId) {
+        mutations.incrementAndGet();
+        bySymbol.computeIfPresent(symbol, (key, current) -> current.without(watchId));
+    }
+
+    public List<Trigger> evaluate(String symbol, BigDecimal price) {
+        SymbolIndex index = bySymbol.get(symbol);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        return index.evaluate(toFixed(price));
+    }
+
+    public int watchCount(String symbol) {
+        SymbolIndex index = bySymbol.get(symbol);
+        return index == null ? 0 : index.entries.length;
+    }
+
+    public List<SymbolThresholdBounds> symbolBounds() {
+        List<SymbolThresholdBounds> bounds = new ArrayList<>(bySymbol.size());
+        bySymbol.forEach((symbol, index) -> bounds.add(index.bounds(symbol)));
+        return bounds;
+    }
+
+    static long toFixed(BigDecimal price) {
+        return price.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromFixed(long fixed) {
+        return BigDecimal.valueOf(fixed, SCALE);
+    }
+
+    private record Entry(long watchId, long userId, long min, long max) {
+        static Entry of(WatchThresholdRow row) {
+            return new Entry(
+                row.getWatchId(),
+                row.getUserId(),
+                row.getMinPrice() == null ? NONE : toFixed(row.getMinPrice()),
+                row.getMaxPrice() == null ? NONE : toFixed(row.getMaxPrice())
+            );
+        }
+    }
+
+    // Immutable; mutations build a new instance and swap it in
+    private static final class SymbolIndex {
+        private final Entry[] entries;
+        private final long[] minThresholds;
+        private final long[] minWatchIds;
+        private final long[] minUserIds;
+        private final long[] maxThresholds;
+        private final long[] maxWatchIds;
+        private final long[] maxUserIds;
+
+        private SymbolIndex(Entry[] entries) {
+            this.entries = entries;
+
+            Entry[] mins = Arrays.stream(entries).filter(e -> e.min != NONE)
+                    .sorted((a, b) -> Long.compare(a.min, b.min)).toArray(Entry[]::new);
+            Entry[] maxs = Arrays.stream(entries).filter(e -> e.max != NONE)
+                    .sorted((a, b) -> Long.compare(a.max, b.max)).toArray(Entry[]::new);
+
+            minThresholds = new long[mins.length];
+            minWatchIds = new long[mins.length];
+            minUserIds = new long[mins.length];
+            for (int i = 0; i < mins.length; i++) {
+                minThresholds[i] = mins[i].min;
+                minWatchIds[i] = mins[i].watchId;
+                minUserIds[i] = mins[i].userId;
+            }
+
+            maxThresholds = new long[maxs.length];
+            maxWatchIds = new long[maxs.length];
+            maxUserIds = new long[maxs.length];
+            for (int i = 0; i < maxs.length; i++) {
+                maxThresholds[i] = maxs[i].max;
+                maxWatchIds[i] = maxs[i].watchId;
+                maxUserIds[i] = maxs[i].userId;
+            }
+        }
+
+        private List<Trigger> evaluate(long price) {
+            // MIN fires for every threshold >= price, MAX for every threshold <= price
+            int minFrom = lowerBound(minThresholds, price);
+            int maxTo = upperBound(maxThresholds, price);
+
+            int hits = (minThresholds.length - minFrom) + maxTo;
+            if (hits == 0) {
+                return Collections.emptyList();
+            }
+
+            List<Trigger> triggers = new ArrayList<>(hits);
+            for (int i = minFrom; i < minThresholds.length; i++) {
+                triggers.add(new Trigger(minWatchIds[i], minUserIds[i], Alert.AlertType.MIN_PRICE_EXCEEDED,
+                        fromFixed(minThresholds[i])));
+            }
+            for (int i = 0; i < maxTo; i++) {
+                triggers.add(new Trigger(maxWatchIds[i], maxUserIds[i], Alert.AlertType.MAX_PRICE_EXCEEDED,
+                        fromFixed(maxThresholds[i])));
+            }
+            return triggers;
+        }
+
+        private SymbolThresholdBounds bounds(String symbol) {
+            return new SymbolThresholdBounds(
+                symbol,
+                minThresholds.length == 0 ? null : fromFixed(minThresholds[minThresholds.length - 1]),
+                maxThresholds.length == 0 ? null : fromFixed(maxThresholds[0])
+            );
+        }
+
+        private SymbolIndex with(Entry entry) {
+            List<Entry> updated = new ArrayList<>(entries.length + 1);
+            for (Entry existing : entries) {
+                if (existing.watchId != entry.watchId) {
+                    updated.add(existing);
+                }
+            }
+            updated.add(entry);
+            return new SymbolIndex(updated.toArray(new Entry[0]));
+        }
+
+        private SymbolIndex without(long watchId) {
+            Entry[] remaining = Arrays.stream(entries).filter(e -> e.watchId != watchId).toArray(Entry[]::new);
+            return remaining.length == 0 ? null : new SymbolIndex(remaining);
+        }
+
+        // First index whose value is >= key
+        private static int lowerBound(long[] values, long key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First index whose value is > key
+        private static int upperBound(long[] values, long key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
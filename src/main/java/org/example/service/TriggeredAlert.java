@@ -0,0 +1,11 @@
+package org.example.service;
+
+import org.example.entity.Alert;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// An alert raised during a monitoring cycle that has not been persisted yet
+public record TriggeredAlert(long watchId, long userId, String symbol, Alert.AlertType type, BigDecimal thresholdPrice,
+                             BigDecimal currentPrice, LocalDateTime triggeredAt) {
+}
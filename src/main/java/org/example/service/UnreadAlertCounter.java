@@ -0,0 +1,105 @@
+package org.example.service;
+
+import org.example.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Unread alert count per user, cached in memory from users.unread_alert_count. Changes are
+// written to the column inside the caller's transaction; once it commits the cached count is
+// dropped and read again, since a load running around the commit may or may not include it.
+// A load that overlapped any change is not kept, so the cache never holds a count older than
+// the last commit.
+@Component
+public class UnreadAlertCounter {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EventStreamHub eventStreamHub;
+
+    private final Map<Long, Long> counts = new ConcurrentHashMap<>();
+    // Advanced by every invalidation; a load that saw it move may have read the column too early
+    private final AtomicLong changes = new AtomicLong();
+
+    public long get(Long userId) {
+        Long cached = counts.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long seen = changes.get();
+        long loaded = userRepository.findUnreadAlertCount(userId).orElse(0L);
+        counts.putIfAbsent(userId, loaded);
+        // Checked after the put: an invalidation that ran before it is caught here, one after it removes it
+        if (changes.get() != seen) {
+            counts.remove(userId, loaded);
+        }
+        return loaded;
+    }
+
+    // Must run inside the transaction that inserted the alerts
+    public void alertsCreated(Map<Long, Integer> alertsPerUser) {
+        if (alertsPerUser.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> updates = new ArrayList<>(alertsPerUser.size());
+        alertsPerUser.forEach((userId, count) -> updates.add(new Object[] {count, userId}));
+        jdbcTemplate.batchUpdate("UPDATE users SET unread_alert_count = unread_alert_count + ? WHERE id = ?", updates);
+
+        afterCommit(() -> alertsPerUser.keySet().forEach(this::changed));
+    }
+
+    // Must run inside the transaction that marked the alerts as read
+    public void alertsRead(Long userId, int count) {
+        if (count <= 0) {
+            return;
+        }
+        userRepository.addUnreadAlertCount(userId, -count);
+        afterCommit(() -> changed(userId));
+    }
+
+    // Recounts from the alerts table after rows were removed in bulk
+    public void reconcile() {
+        jdbcTemplate.update("UPDATE users SET unread_alert_count = " +
+                "(SELECT COUNT(*) FROM alerts a WHERE a.user_id = users.id AND a.is_read = false)");
+        changes.incrementAndGet();
+        counts.clear();
+        eventStreamHub.connectedUsers().forEach(userId -> eventStreamHub.publishUnreadCount(userId, get(userId)));
+    }
+
+    // Connected users are pushed the new count, which costs them one read per change
+    private void changed(Long userId) {
+        changes.incrementAndGet();
+        counts.remove(userId);
+        if (eventStreamHub.connectedUsers().contains(userId)) {
+            eventStreamHub.publishUnreadCount(userId, get(userId));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
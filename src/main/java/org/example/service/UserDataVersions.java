@@ -0,0 +1,71 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user versions of the watchlist and the alerts, served as ETags so a poll that finds nothing
+// new is answered without a query. Every change takes the next value of one clock, and a user
+// seen for the first time (or again after eviction) starts at its current value, so an old tag
+// only matches while nothing changed for that user. Seeding the clock from the wall clock keeps
+// that true across restarts.
+@Component
+public class UserDataVersions {
+
+    @Value("${stock.etag.max-users:100000}")
+    private long maxUsers;
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis() * 1000);
+    private Cache<Long, Long> watchlists;
+    private Cache<Long, Long> alerts;
+
+    @PostConstruct
+    public void init() {
+        watchlists = Caffeine.newBuilder().maximumSize(maxUsers).build();
+        alerts = Caffeine.newBuilder().maximumSize(maxUsers).build();
+    }
+
+    public long watchlist(Long userId) {
+        return watchlists.get(userId, id -> clock.get());
+    }
+
+    public long alerts(Long userId) {
+        return alerts.get(userId, id -> clock.get());
+    }
+
+    // Bumped only after commit: a reader that saw the new version must also see the new data
+    public void watchlistChanged(Long userId) {
+        afterCommit(() -> watchlists.put(userId, clock.incrementAndGet()));
+    }
+
+    public void alertsChanged(Long userId) {
+        afterCommit(() -> alerts.put(userId, clock.incrementAndGet()));
+    }
+
+    // After bulk removals that touched unknown users; everyone restarts from the advanced clock
+    public void allAlertsChanged() {
+        afterCommit(() -> {
+            clock.incrementAndGet();
+            alerts.invalidateAll();
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Caps how many symbols one user can send upstream per fixed window, so interactive reads
+// cannot use up the provider budget the monitor depends on
+@Component
+public class UserQuoteLimiter {
+
+    @Value("${stock.quote.user-limit.symbols:30}")
+    private int maxSymbols;
+
+    @Value("${stock.quote.user-limit.window:60000}")
+    private long window;
+
+    @Value("${stock.quote.user-limit.max-users:100000}")
+    private long maxUsers;
+
+    private Cache<Long, AtomicInteger> used;
+
+    @PostConstruct
+    public void init() {
+        used = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(window))
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    // Grants as many of the requested symbols as the user has left in this window, at least one,
+    // so a large request is answered in part instead of being refused every time. The count is
+    // updated with a compare-and-set, so parallel requests cannot all pass a stale check.
+    public int acquire(Long userId, int symbols) {
+        AtomicInteger count = used.get(userId, id -> new AtomicInteger());
+        while (true) {
+            int current = count.get();
+            int granted = Math.min(symbols, maxSymbols - current);
+            if (granted <= 0) {
+                long age = used.policy().expireAfterWrite()
+                        .flatMap(expiry -> expiry.ageOf(userId))
+                        .map(Duration::toMillis)
+                        .orElse(0L);
+                throw new QuoteLimitExceededException("Too many quote requests, try again later",
+                        Math.max(1, (window - age + 999) / 1000));
+            }
+            if (count.compareAndSet(current, current + granted)) {
+                return granted;
+            }
+        }
+    }
+}
@@ -1,16 +1,39 @@
 package org.example.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.dto.BulkWatchlistResponse;
+import org.example.dto.BulkWatchlistRowResult;
+import org.example.dto.WatchThresholdRow;
 import org.example.dto.WatchedStockRequest;
 import org.example.dto.WatchedStockResponse;
-import org.example.entity.User;
 import org.example.entity.WatchedStock;
 import org.example.repository.UserRepository;
 import org.example.repository.WatchedStockRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,11 +45,66 @@ public class WatchedStockService {
     @Autowired
     private UserRepository userRepository;
 
-    public WatchedStockResponse addWatchedStock(WatchedStockRequest request, UserDetails userDetails) {
-        User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    @Autowired
+    private QuoteCache quoteCache;
+
+    @Autowired
+    private ThresholdIndex thresholdIndex;
+
+    @Autowired
+    private AlertTriggerState alertTriggerState;
+
+    @Autowired
+    private EventStreamHub eventStreamHub;
+
+    @Autowired
+    private UserDataVersions userDataVersions;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${stock.watchlist.bulk-max-entries:5000}")
+    private int bulkMaxEntries;
+
+    // Bounds the cache by watched stocks across all users rather than by users
+    @Value("${stock.watchlist.cache.max-entries:200000}")
+    private long cacheMaxEntries;
+
+    @Value("${stock.watchlist.cache.ttl:1800000}")
+    private long cacheTtl;
+
+    // A user's active watchlist as stored, without prices, and the version it was read at. Mutations
+    // evict it; the version also catches a read that raced with a mutation and cached older rows.
+    private record CachedWatchlist(long version, List<WatchedStockResponse> stocks) {}
+
+    private Cache<Long, CachedWatchlist> watchlists;
+
+    // One entry of a bulk import; row is the 1-based line (CSV) or position (JSON) reported back
+    private record BulkEntry(int row, WatchedStockRequest request, String error) {}
 
-        if (watchedStockRepository.existsByUserIdAndSymbol(user.getId(), request.getSymbol())) {
+    @PostConstruct
+    public void init() {
+        watchlists = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxEntries)
+                .weigher((Long userId, CachedWatchlist watchlist) -> watchlist.stocks().size() + 1)
+                .expireAfterAccess(Duration.ofMillis(cacheTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, watchlists, "watchlists");
+    }
+
+    // Same rules as a bulk import entry: the symbol is upper-cased, and a symbol the user removed
+    // earlier is reactivated, since (user_id, symbol) is unique
+    public WatchedStockResponse addWatchedStock(WatchedStockRequest request, Long userId) {
+        String symbol = request.getSymbol().strip().toUpperCase();
+        WatchedStock watchedStock = watchedStockRepository.findByUserIdAndSymbol(userId, symbol).orElse(null);
+        if (watchedStock != null && watchedStock.isActive()) {
             throw new RuntimeException("Stock is already being watched");
         }
 
@@ -35,36 +113,287 @@ public class WatchedStockService {
             throw new RuntimeException("Minimum price must be less than maximum price");
         }
 
-        WatchedStock watchedStock = new WatchedStock();
-        watchedStock.setSymbol(request.getSymbol().toUpperCase());
+        boolean reactivated = watchedStock != null;
+        if (reactivated) {
+            watchedStock.setActive(true);
+            watchedStock.setMinAlertTriggered(false);
+            watchedStock.setMaxAlertTriggered(false);
+        } else {
+            watchedStock = new WatchedStock();
+            watchedStock.setSymbol(symbol);
+            // A reference is enough for the foreign key; the user row is never loaded
+            watchedStock.setUser(userRepository.getReferenceById(userId));
+        }
         watchedStock.setMinPrice(request.getMinPrice());
         watchedStock.setMaxPrice(request.getMaxPrice());
-        watchedStock.setUser(user);
 
         WatchedStock saved = watchedStockRepository.save(watchedStock);
+        thresholdIndex.upsert(toThresholdRow(saved));
+        if (reactivated) {
+            alertTriggerState.reset(symbol, saved.getId());
+        }
+        eventStreamHub.watchAdded(userId, symbol);
+        watchlistChanged(userId);
 
         return mapToResponse(saved);
     }
 
-    public List<WatchedStockResponse> getUserWatchedStocks(UserDetails userDetails) {
-        User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public BulkWatchlistResponse importWatchedStocks(List<WatchedStockRequest> requests, Long userId) {
+        List<BulkEntry> entries = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            WatchedStockRequest request = requests.get(i);
+            entries.add(new BulkEntry(i + 1, request, request == null ? "Empty entry" : null));
+        }
+        return importEntries(entries, userId);
+    }
 
-        List<WatchedStock> watchedStocks = watchedStockRepository.findByUserIdAndActiveTrue(user.getId());
+    // One symbol,minPrice,maxPrice per line; blank lines and a leading header line are skipped
+    public BulkWatchlistResponse importCsv(String csv, Long userId) {
+        List<BulkEntry> entries = new ArrayList<>();
+        String[] lines = csv.split("\\r?\\n");
+        for (int i = 0; i < lines.length; i++) {
+            String[] fields = splitCsvLine(lines[i]);
+            String symbol = fields == null ? null : csvField(fields, 0);
+            if (fields != null && ((fields.length == 1 && symbol == null)
+                    || (entries.isEmpty() && "symbol".equalsIgnoreCase(symbol)))) {
+                continue;
+            }
+            if (entries.size() >= bulkMaxEntries) {
+                throw new RuntimeException("At most " + bulkMaxEntries + " entries can be imported at once");
+            }
 
-        return watchedStocks.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+            if (fields == null) {
+                entries.add(new BulkEntry(i + 1, new WatchedStockRequest(null, null, null), "Unterminated quoted field"));
+                continue;
+            }
+            if (fields.length > 3) {
+                entries.add(new BulkEntry(i + 1, new WatchedStockRequest(symbol, null, null), "Expected symbol,minPrice,maxPrice"));
+                continue;
+            }
+            try {
+                BigDecimal minPrice = csvField(fields, 1) == null ? null : new BigDecimal(csvField(fields, 1));
+                BigDecimal maxPrice = csvField(fields, 2) == null ? null : new BigDecimal(csvField(fields, 2));
+                entries.add(new BulkEntry(i + 1, new WatchedStockRequest(symbol, minPrice, maxPrice), null));
+            } catch (NumberFormatException e) {
+                entries.add(new BulkEntry(i + 1, new WatchedStockRequest(symbol, null, null), "Prices must be numbers"));
+            }
+        }
+        return importEntries(entries, userId);
     }
 
-    public WatchedStockResponse updateWatchedStock(Long id, WatchedStockRequest request, UserDetails userDetails) {
-        User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // Every entry is validated before anything is written, and a failed entry does not stop the rest.
+    // The user's existing rows for all valid symbols come from one query; removed symbols are
+    // reactivated, since (user_id, symbol) is unique. Inserts and updates share one transaction and
+    // go out in JDBC batches; the in-memory indexes only change once it has committed.
+    private BulkWatchlistResponse importEntries(List<BulkEntry> entries, Long userId) {
+        if (entries.size() > bulkMaxEntries) {
+            throw new RuntimeException("At most " + bulkMaxEntries + " entries can be imported at once");
+        }
+
+        BulkWatchlistRowResult[] results = new BulkWatchlistRowResult[entries.size()];
+        Map<String, Integer> valid = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            BulkEntry entry = entries.get(i);
+            WatchedStockRequest request = entry.request();
+            if (request != null && request.getSymbol() != null) {
+                request.setSymbol(request.getSymbol().strip().toUpperCase());
+            }
+            String error = entry.error() != null ? entry.error() : validate(request);
+            if (error == null) {
+                Integer first = valid.putIfAbsent(request.getSymbol(), i);
+                if (first != null) {
+                    error = "Duplicate of row " + entries.get(first).row();
+                }
+            }
+            if (error != null) {
+                results[i] = BulkWatchlistRowResult.failed(entry.row(), request == null ? null : request.getSymbol(), error);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            Map<String, WatchedStock> written = new HashMap<>();
+            Set<String> created = new HashSet<>();
+            Set<String> activated = new HashSet<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                for (WatchedStock existing : watchedStockRepository.findByUserIdAndSymbolIn(userId, valid.keySet())) {
+                    written.put(existing.getSymbol(), existing);
+                }
 
+                List<WatchedStock> inserts = new ArrayList<>();
+                valid.forEach((symbol, index) -> {
+                    WatchedStockRequest request = entries.get(index).request();
+                    WatchedStock watchedStock = written.get(symbol);
+                    if (watchedStock == null) {
+                        watchedStock = new WatchedStock(symbol, request.getMinPrice(), request.getMaxPrice(),
+                            userRepository.getReferenceById(userId));
+                        written.put(symbol, watchedStock);
+                        inserts.add(watchedStock);
+                        created.add(symbol);
+                        return;
+                    }
+                    if (!watchedStock.isActive()) {
+                        watchedStock.setActive(true);
+                        activated.add(symbol);
+                    }
+                    // Loaded rows are managed, so these changes are flushed as batched updates on commit
+                    watchedStock.setMinPrice(request.getMinPrice());
+                    watchedStock.setMaxPrice(request.getMaxPrice());
+                    watchedStock.setMinAlertTriggered(false);
+                    watchedStock.setMaxAlertTriggered(false);
+                });
+                watchedStockRepository.saveAll(inserts);
+            });
+
+            valid.forEach((symbol, index) -> {
+                WatchedStock watchedStock = written.get(symbol);
+                thresholdIndex.upsert(toThresholdRow(watchedStock));
+                if (created.contains(symbol) || activated.contains(symbol)) {
+                    eventStreamHub.watchAdded(userId, symbol);
+                }
+                if (!created.contains(symbol)) {
+                    alertTriggerState.reset(symbol, watchedStock.getId());
+                }
+                results[index] = new BulkWatchlistRowResult(entries.get(index).row(), symbol,
+                    created.contains(symbol) ? BulkWatchlistRowResult.Status.CREATED : BulkWatchlistRowResult.Status.UPDATED,
+                    watchedStock.getId(), null);
+            });
+            watchlistChanged(userId);
+        }
+
+        return new BulkWatchlistResponse(Arrays.asList(results));
+    }
+
+    private String validate(WatchedStockRequest request) {
+        if (request == null) {
+            return "Empty entry";
+        }
+        Set<ConstraintViolation<WatchedStockRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (request.getMinPrice() != null && request.getMaxPrice() != null &&
+            request.getMinPrice().compareTo(request.getMaxPrice()) >= 0) {
+            return "Minimum price must be less than maximum price";
+        }
+        return null;
+    }
+
+    private static String csvField(String[] fields, int index) {
+        if (index >= fields.length) {
+            return null;
+        }
+        String field = fields[index].strip();
+        return field.isEmpty() ? null : field;
+    }
+
+    // RFC 4180 fields: a quoted field may contain commas and doubled quotes. Quoted line breaks
+    // are not supported; null when a quote is left open.
+    static String[] splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    // Served from the cache while the user's watchlist is unchanged; prices are overlaid on copies
+    // so the cached rows never carry one
+    public List<WatchedStockResponse> getUserWatchedStocks(Long userId) {
+        CachedWatchlist cached = currentWatchlist(userId);
+        if (cached == null) {
+            long version = userDataVersions.watchlist(userId);
+            cached = new CachedWatchlist(version, List.copyOf(watchedStockRepository.findActiveResponsesByUserId(userId)));
+            watchlists.put(userId, cached);
+        }
+
+        List<WatchedStockResponse> responses = new ArrayList<>(cached.stocks().size());
+        for (WatchedStockResponse stock : cached.stocks()) {
+            WatchedStockResponse response = new WatchedStockResponse(stock.getId(), stock.getSymbol(),
+                stock.getMinPrice(), stock.getMaxPrice(), stock.getCreatedAt(), stock.isActive());
+            addCachedPrice(response);
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    // Prices are overlaid from the quote cache, so the tag covers them as well as the stored rows.
+    // Null until the user's watchlist has been read at the current version.
+    public String getWatchlistETag(Long userId) {
+        CachedWatchlist cached = currentWatchlist(userId);
+        if (cached == null) {
+            return null;
+        }
+        long stamp = 1;
+        for (WatchedStockResponse stock : cached.stocks()) {
+            Optional<Quote> quote = quoteCache.peek(stock.getSymbol());
+            stamp = priceStamp(stamp, stock.getSymbol(), quote.map(Quote::price).orElse(null),
+                quote.map(q -> LocalDateTime.ofInstant(q.fetchedAt(), ZoneId.systemDefault())).orElse(null));
+        }
+        return watchlistETag(userId, cached.version(), stamp);
+    }
+
+    // Tag of a list just returned by getUserWatchedStocks, from the prices it carries; null if the
+    // watchlist changed while it was being read
+    public String getWatchlistETag(Long userId, List<WatchedStockResponse> watchlist) {
+        CachedWatchlist cached = currentWatchlist(userId);
+        if (cached == null) {
+            return null;
+        }
+        long stamp = 1;
+        for (WatchedStockResponse response : watchlist) {
+            stamp = priceStamp(stamp, response.getSymbol(), response.getCurrentPrice(), response.getPriceUpdatedAt());
+        }
+        return watchlistETag(userId, cached.version(), stamp);
+    }
+
+    private CachedWatchlist currentWatchlist(Long userId) {
+        CachedWatchlist cached = watchlists.getIfPresent(userId);
+        return cached != null && cached.version() == userDataVersions.watchlist(userId) ? cached : null;
+    }
+
+    private void watchlistChanged(Long userId) {
+        watchlists.invalidate(userId);
+        userDataVersions.watchlistChanged(userId);
+    }
+
+    private static long priceStamp(long stamp, String symbol, BigDecimal price, LocalDateTime updatedAt) {
+        return 31 * stamp + Objects.hash(symbol, price, updatedAt);
+    }
+
+    private static String watchlistETag(Long userId, long version, long stamp) {
+        return "w" + userId + "-" + Long.toHexString(version) + "-" + Long.toHexString(stamp);
+    }
+
+    public WatchedStockResponse updateWatchedStock(Long id, WatchedStockRequest request, Long userId) {
+        // A removed watch must not re-enter the threshold index through an update
         WatchedStock watchedStock = watchedStockRepository.findById(id)
+                .filter(WatchedStock::isActive)
                 .orElseThrow(() -> new RuntimeException("Watched stock not found"));
 
-        if (!watchedStock.getUser().getId().equals(user.getId())) {
+        if (!watchedStock.getUser().getId().equals(userId)) {
             throw new RuntimeException("Access denied");
         }
 
@@ -75,29 +404,45 @@ public class WatchedStockService {
 
         watchedStock.setMinPrice(request.getMinPrice());
         watchedStock.setMaxPrice(request.getMaxPrice());
+        watchedStock.setMinAlertTriggered(false);
+        watchedStock.setMaxAlertTriggered(false);
 
         WatchedStock updated = watchedStockRepository.save(watchedStock);
+        thresholdIndex.upsert(toThresholdRow(updated));
+        alertTriggerState.reset(updated.getSymbol(), updated.getId());
+        watchlistChanged(userId);
 
         return mapToResponse(updated);
     }
 
-    public void deleteWatchedStock(Long id, UserDetails userDetails) {
-        User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public void deleteWatchedStock(Long id, Long userId) {
         WatchedStock watchedStock = watchedStockRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Watched stock not found"));
 
-        if (!watchedStock.getUser().getId().equals(user.getId())) {
+        if (!watchedStock.getUser().getId().equals(userId)) {
             throw new RuntimeException("Access denied");
         }
 
         watchedStock.setActive(false);
         watchedStockRepository.save(watchedStock);
+        thresholdIndex.remove(watchedStock.getSymbol(), watchedStock.getId());
+        alertTriggerState.reset(watchedStock.getSymbol(), watchedStock.getId());
+        eventStreamHub.watchRemoved(userId, watchedStock.getSymbol());
+        watchlistChanged(userId);
+    }
+
+    private WatchThresholdRow toThresholdRow(WatchedStock watchedStock) {
+        return new WatchThresholdRow(
+            watchedStock.getId(),
+            watchedStock.getUser().getId(),
+            watchedStock.getSymbol(),
+            watchedStock.getMinPrice(),
+            watchedStock.getMaxPrice()
+        );
     }
 
     private WatchedStockResponse mapToResponse(WatchedStock watchedStock) {
-        return new WatchedStockResponse(
+        WatchedStockResponse response = new WatchedStockResponse(
             watchedStock.getId(),
             watchedStock.getSymbol(),
             watchedStock.getMinPrice(),
@@ -105,5 +450,17 @@ public class WatchedStockService {
             watchedStock.getCreatedAt(),
             watchedStock.isActive()
         );
+
+        addCachedPrice(response);
+
+        return response;
+    }
+
+    // Only what is already cached; watchlist reads never trigger upstream calls
+    private void addCachedPrice(WatchedStockResponse response) {
+        quoteCache.peek(response.getSymbol()).ifPresent(quote -> {
+            response.setCurrentPrice(quote.price());
+            response.setPriceUpdatedAt(LocalDateTime.ofInstant(quote.fetchedAt(), ZoneId.systemDefault()));
+        });
     }
 }
@@ -0,0 +1,57 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+// Posts each alert as JSON to one configured URL. Any non-2xx response or timeout is retried.
+@Component
+@ConditionalOnProperty(name = "stock.notify.webhook.enabled", havingValue = "true")
+public class WebhookNotificationChannel implements NotificationChannel {
+
+    public static final String NAME = "webhook";
+
+    @Value("${stock.notify.webhook.url}")
+    private String url;
+
+    @Value("${stock.notify.webhook.concurrency:4}")
+    private int concurrency;
+
+    @Value("${stock.notify.webhook.timeout:10000}")
+    private long timeout;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        webClient = WebClient.builder().baseUrl(url).build();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int concurrency() {
+        return concurrency;
+    }
+
+    @Override
+    public void send(Notification notification) {
+        webClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", notification.idempotencyKey())
+                .header("X-StockWatch-User", String.valueOf(notification.userId()))
+                .bodyValue(notification.payload())
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(Duration.ofMillis(timeout))
+                .block();
+    }
+}
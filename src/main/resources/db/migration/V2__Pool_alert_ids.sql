@@ -0,0 +1,2 @@
+-- Alert ids come from a pooled sequence (allocationSize = 50) so inserts can be batched
+ALTER SEQUENCE alerts_id_seq INCREMENT BY 50;
@@ -0,0 +1,3 @@
+-- Checkpointed alert hysteresis state; a triggered side is not alerted again until the price re-arms it
+ALTER TABLE watched_stocks ADD COLUMN min_alert_triggered BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE watched_stocks ADD COLUMN max_alert_triggered BOOLEAN NOT NULL DEFAULT FALSE;
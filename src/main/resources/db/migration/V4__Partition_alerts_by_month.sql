@@ -0,0 +1,45 @@
+-- Range-partition alerts by triggered_at, one partition per month (alerts_pYYYYMM).
+-- Expired months are dropped or detached by AlertPartitionMaintenance instead of bulk deletes,
+-- which also creates upcoming partitions ahead of time.
+
+ALTER TABLE alerts RENAME TO alerts_legacy;
+ALTER TABLE alerts_legacy RENAME CONSTRAINT alerts_pkey TO alerts_legacy_pkey;
+ALTER SEQUENCE alerts_id_seq OWNED BY NONE;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE alerts (
+    id BIGINT NOT NULL DEFAULT nextval('alerts_id_seq'),
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    watched_stock_id BIGINT NOT NULL REFERENCES watched_stocks(id) ON DELETE CASCADE,
+    current_price DECIMAL(10,2) NOT NULL,
+    threshold_price DECIMAL(10,2) NOT NULL,
+    alert_type VARCHAR(50) NOT NULL CHECK (alert_type IN ('MIN_PRICE_EXCEEDED', 'MAX_PRICE_EXCEEDED')),
+    triggered_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    is_read BOOLEAN DEFAULT FALSE,
+    PRIMARY KEY (id, triggered_at)
+) PARTITION BY RANGE (triggered_at);
+
+ALTER SEQUENCE alerts_id_seq OWNED BY alerts.id;
+
+-- Partitions from the oldest existing alert through three months ahead
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE((SELECT MIN(triggered_at) FROM alerts_legacy), CURRENT_DATE));
+    last_month DATE := date_trunc('month', CURRENT_DATE) + INTERVAL '3 months';
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE alerts_p%s PARTITION OF alerts FOR VALUES FROM (%L) TO (%L)',
+                       to_char(month_start, 'YYYYMM'), month_start, month_start + INTERVAL '1 month');
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO alerts (id, user_id, watched_stock_id, current_price, threshold_price, alert_type, triggered_at, is_read)
+SELECT id, user_id, watched_stock_id, current_price, threshold_price, alert_type,
+       COALESCE(triggered_at, CURRENT_TIMESTAMP), is_read
+FROM alerts_legacy;
+
+DROP TABLE alerts_legacy;
+
+CREATE INDEX idx_alerts_user_triggered ON alerts(user_id, triggered_at DESC);
+CREATE INDEX idx_alerts_user_read ON alerts(user_id, is_read);
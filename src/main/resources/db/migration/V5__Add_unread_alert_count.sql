@@ -0,0 +1,5 @@
+-- Denormalized unread alert count, kept in step with alert inserts and mark-read
+ALTER TABLE users ADD COLUMN unread_alert_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE users SET unread_alert_count =
+    (SELECT COUNT(*) FROM alerts a WHERE a.user_id = users.id AND a.is_read = false);
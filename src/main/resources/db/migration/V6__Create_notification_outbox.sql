@@ -0,0 +1,23 @@
+-- Transactional outbox for alert notifications, one row per alert and channel.
+-- alert_id has no foreign key because the partitioned alerts table is keyed by (id, triggered_at).
+CREATE TABLE notification_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    alert_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    channel VARCHAR(20) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL UNIQUE,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    claim_token VARCHAR(36),
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- Only undelivered rows are polled, so the index stays small
+CREATE INDEX idx_notification_outbox_due ON notification_outbox(channel, next_attempt_at)
+    WHERE status IN ('PENDING', 'SENDING');
+CREATE INDEX idx_notification_outbox_claim ON notification_outbox(claim_token);
+CREATE INDEX idx_notification_outbox_created ON notification_outbox(created_at);
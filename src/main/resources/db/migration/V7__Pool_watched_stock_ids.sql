@@ -0,0 +1,2 @@
+-- Watched stock ids come from a pooled sequence (allocationSize = 50) so bulk imports can batch inserts
+ALTER SEQUENCE watched_stocks_id_seq INCREMENT BY 50;
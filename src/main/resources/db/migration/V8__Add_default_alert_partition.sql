@@ -0,0 +1,3 @@
+-- Catches alerts outside every monthly partition (e.g. when maintenance has not run for a while)
+-- so inserts never fail. AlertPartitionMaintenance moves these rows into their month's partition.
+CREATE TABLE alerts_default PARTITION OF alerts DEFAULT;
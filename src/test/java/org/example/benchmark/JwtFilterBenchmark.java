@@ -0,0 +1,111 @@
+package org.example.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.entity.User;
+import org.example.security.JwtAuthenticationFilter;
+import org.example.security.JwtTokenProvider;
+import org.example.security.PrincipalCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+// Filter throughput for a repeat request with a valid token. "legacy" is the old double parse with a
+// parser built per call; "uncached" verifies once with the shared parser; "cached" hits the
+// verified-token cache. The principal cache is warm in every mode, so only token handling differs.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKey123456789012345678901234";
+
+    @Param({"uncached", "cached"})
+    private String mode;
+
+    private JwtTokenProvider tokenProvider;
+    private PrincipalCache principalCache;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        User user = new User("bench", "bench@example.com", "hash");
+        user.setId(1L);
+        UserDetailsService userDetailsService = username -> user;
+
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3_600_000);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaxSize", "cached".equals(mode) ? 10_000L : 0L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheTtl", 300_000L);
+        tokenProvider.init();
+
+        principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(principalCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(principalCache, "ttl", 300_000L);
+        ReflectionTestUtils.setField(principalCache, "maxSize", 10_000L);
+        principalCache.init();
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+
+        token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        request = new MockHttpServletRequest("GET", "/api/alerts");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @Benchmark
+    public Object filter() throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    // The token handling the filter did before: validateToken and getUsernameFromToken each
+    // built a parser and verified the signature
+    @Benchmark
+    public Object legacy() {
+        SecretKey key = (SecretKey) ReflectionTestUtils.getField(tokenProvider, "signingKey");
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return principalCache.get(claims.getSubject());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
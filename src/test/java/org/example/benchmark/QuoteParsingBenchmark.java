@@ -0,0 +1,82 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.service.AlphaVantageQuoteParser;
+import org.example.service.Quote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Map-based decoding as StockPriceService used to do it versus the streaming parser.
+// Run from the IDE or with the test classpath; the gc profiler reports bytes allocated per call.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuoteParsingBenchmark {
+
+    private static final byte[] GLOBAL_QUOTE = """
+        {
+            "Global Quote": {
+                "01. symbol": "IBM",
+                "02. open": "185.5100",
+                "03. high": "187.1800",
+                "04. low": "185.2500",
+                "05. price": "187.1800",
+                "06. volume": "4018510",
+                "07. latest trading day": "2024-02-02",
+                "08. previous close": "183.6600",
+                "09. change": "3.5200",
+                "10. change percent": "1.9166%"
+            }
+        }
+        """.getBytes(StandardCharsets.UTF_8);
+
+    private static final TypeReference<Map<String, Map<String, String>>> RESPONSE_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AlphaVantageQuoteParser parser = new AlphaVantageQuoteParser();
+    private final Instant fetchedAt = Instant.now();
+
+    @Benchmark
+    public BigDecimal mapBased() throws IOException {
+        Map<String, Map<String, String>> response = objectMapper.readValue(GLOBAL_QUOTE, RESPONSE_TYPE);
+        Map<String, String> quote = response.get("Global Quote");
+        if (quote == null) {
+            throw new RuntimeException("Invalid API response");
+        }
+        return new BigDecimal(quote.get("05. price"));
+    }
+
+    @Benchmark
+    public Quote streaming() {
+        return parser.parseGlobalQuote("IBM", GLOBAL_QUOTE, fetchedAt);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QuoteParsingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
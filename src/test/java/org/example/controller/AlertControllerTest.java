@@ -0,0 +1,81 @@
+package org.example.controller;
+
+import org.example.dto.AlertPage;
+import org.example.security.AuthenticatedUser;
+import org.example.security.CurrentUserIdArgumentResolver;
+import org.example.service.AlertService;
+import org.example.service.InvalidCursorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AlertControllerTest {
+
+    private AlertService alertService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        alertService = mock(AlertService.class);
+        AlertController controller = new AlertController();
+        ReflectionTestUtils.setField(controller, "alertService", alertService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new CurrentUserIdArgumentResolver())
+                .build();
+
+        AuthenticatedUser principal = new AuthenticatedUser(1L, "alice", true, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getAlerts_MatchingETag_NotModifiedWithoutLoading() throws Exception {
+        when(alertService.getAlertsETag(1L)).thenReturn("a1-f");
+
+        mockMvc.perform(get("/api/alerts?size=5").header("If-None-Match", "\"a1-f\""))
+            .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/alerts/unread").header("If-None-Match", "\"a1-f\""))
+            .andExpect(status().isNotModified());
+
+        verify(alertService, times(2)).getAlertsETag(1L);
+        verifyNoMoreInteractions(alertService);
+    }
+
+    @Test
+    void getAlerts_ChangedETag_ReturnsPageWithNoCacheHeaders() throws Exception {
+        when(alertService.getAlertsETag(1L)).thenReturn("a1-10");
+        when(alertService.getUserAlerts(1L, (String) null, 5)).thenReturn(new AlertPage(List.of(), "next"));
+
+        mockMvc.perform(get("/api/alerts?size=5").header("If-None-Match", "\"a1-f\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"a1-10\""))
+            .andExpect(header().string("Cache-Control", containsString("no-cache")))
+            .andExpect(header().string(AlertController.NEXT_CURSOR_HEADER, "next"));
+    }
+
+    @Test
+    void getAlerts_InvalidCursor_BadRequest() throws Exception {
+        when(alertService.getAlertsETag(1L)).thenReturn("a1-f");
+        when(alertService.getUnreadAlerts(1L, "bogus", 50)).thenThrow(new InvalidCursorException());
+
+        mockMvc.perform(get("/api/alerts/unread?cursor=bogus"))
+            .andExpect(status().isBadRequest());
+    }
+}
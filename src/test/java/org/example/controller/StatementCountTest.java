@@ -0,0 +1,211 @@
+package org.example.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.Alert;
+import org.example.entity.User;
+import org.example.entity.WatchedStock;
+import org.example.repository.AlertRepository;
+import org.example.repository.UserRepository;
+import org.example.repository.WatchedStockRepository;
+import org.example.service.StockMonitoringService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.TestExecutionEvent;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Guards against N+1 regressions: each read endpoint must stay within a fixed number of SQL statements
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "stock.quote.provider=mock"
+})
+@AutoConfigureMockMvc
+class StatementCountTest {
+
+    private static final String USERNAME = "statements";
+
+    @MockBean
+    private StockMonitoringService stockMonitoringService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WatchedStockRepository watchedStockRepository;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User(USERNAME, "statements@example.com", "password"));
+        WatchedStock apple = watchedStockRepository.save(new WatchedStock("AAPL", new BigDecimal("100"), new BigDecimal("200"), user));
+        WatchedStock ibm = watchedStockRepository.save(new WatchedStock("IBM", new BigDecimal("100"), new BigDecimal("200"), user));
+
+        List<Alert> alerts = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 30; i++) {
+            Alert alert = new Alert(new BigDecimal("99"), new BigDecimal("100"), Alert.AlertType.MIN_PRICE_EXCEEDED,
+                user, i % 2 == 0 ? apple : ibm);
+            alert.setTriggeredAt(start.plusMinutes(i / 2));
+            alerts.add(alert);
+        }
+        alertRepository.saveAll(alerts);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        alertRepository.deleteAll();
+        watchedStockRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME, setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void alertPages_OneStatementPerPage() throws Exception {
+        MvcResult first = assertStatements(1, "/api/alerts?size=20");
+        String cursor = first.getResponse().getHeader(AlertController.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        MvcResult second = assertStatements(1, "/api/alerts?size=20&cursor=" + cursor);
+        assertNull(second.getResponse().getHeader(AlertController.NEXT_CURSOR_HEADER));
+
+        assertStatements(1, "/api/alerts?page=1&size=20");
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME, setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void unreadAlerts_OneStatement() throws Exception {
+        assertStatements(1, "/api/alerts/unread");
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME, setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void unreadCount_NoStatementOnceLoaded() throws Exception {
+        mockMvc.perform(get("/api/alerts/unread/count")).andExpect(status().isOk());
+
+        assertStatements(0, "/api/alerts/unread/count");
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME, setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void watchlist_OneStatement() throws Exception {
+        assertStatements(1, "/api/watchlist");
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME, setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void watchlist_CachedUntilChanged() throws Exception {
+        mockMvc.perform(get("/api/watchlist")).andExpect(status().isOk());
+        assertStatements(0, "/api/watchlist");
+
+        Long watchId = watchedStockRepository.findAll().get(0).getId();
+        mockMvc.perform(put("/api/watchlist/" + watchId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"symbol\":\"AAPL\",\"minPrice\":110,\"maxPrice\":190}"))
+            .andExpect(status().isOk());
+
+        MvcResult result = assertStatements(1, "/api/watchlist");
+        assertTrue(result.getResponse().getContentAsString().contains("190"));
+        assertStatements(0, "/api/watchlist");
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME, setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void removeFromWatchlist_NoUserLookup() throws Exception {
+        Long watchId = watchedStockRepository.findAll().get(0).getId();
+        statistics.clear();
+
+        mockMvc.perform(delete("/api/watchlist/" + watchId)).andExpect(status().isOk());
+
+        // Load the watch and update it; the user id comes from the principal
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME, setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void watchlistETag_NotModifiedWithoutStatements() throws Exception {
+        String etag = mockMvc.perform(get("/api/watchlist")).andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        assertNotModified("/api/watchlist", etag);
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME, setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void alertsETag_NotModifiedWithoutStatements() throws Exception {
+        String etag = mockMvc.perform(get("/api/alerts?size=5")).andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        assertNotModified("/api/alerts?size=5", etag);
+        assertNotModified("/api/alerts/unread", etag);
+    }
+
+    @Test
+    @WithUserDetails(value = USERNAME, setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    void bulkImport_BatchedStatements() throws Exception {
+        StringBuilder json = new StringBuilder("[{\"symbol\":\"AAPL\",\"minPrice\":120,\"maxPrice\":180}");
+        for (int i = 0; i < 200; i++) {
+            json.append(",{\"symbol\":\"").append((char) ('A' + i / 26)).append((char) ('A' + i % 26)).append("X\"}");
+        }
+        json.append("]");
+        statistics.clear();
+
+        mockMvc.perform(post("/api/watchlist/bulk").contentType(MediaType.APPLICATION_JSON).content(json.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(200))
+            .andExpect(jsonPath("$.updated").value(1));
+
+        // One lookup, a few sequence calls and batched writes instead of three statements per entry
+        assertTrue(statistics.getPrepareStatementCount() <= 12, "SQL statements: " + statistics.getPrepareStatementCount());
+        assertEquals(202, watchedStockRepository.count());
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    private void assertNotModified(String url, String etag) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url).header("If-None-Match", etag)).andExpect(status().isNotModified());
+        assertEquals(0, statistics.getPrepareStatementCount(), "SQL statements for GET " + url);
+    }
+
+    private MvcResult assertStatements(long expected, String url) throws Exception {
+        statistics.clear();
+        MvcResult result = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements for GET " + url);
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.AlertResponse;
+import org.example.entity.Alert;
+import org.example.security.AuthenticatedUser;
+import org.example.security.CurrentUserIdArgumentResolver;
+import org.example.service.AlertService;
+import org.example.service.EventStreamHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class StreamControllerTest {
+
+    private EventStreamHub hub;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        hub = new EventStreamHub();
+        ReflectionTestUtils.setField(hub, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(hub, "timeout", 60000L);
+        ReflectionTestUtils.setField(hub, "bufferSize", 16);
+        ReflectionTestUtils.setField(hub, "replaySize", 10);
+        ReflectionTestUtils.setField(hub, "replayTtl", 60000L);
+        ReflectionTestUtils.setField(hub, "replayMaxUsers", 100L);
+        ReflectionTestUtils.setField(hub, "maxConnectionsPerUser", 5);
+        hub.init();
+
+        AlertService alertService = mock(AlertService.class);
+        when(alertService.openStream(any(), any())).thenAnswer(invocation ->
+                hub.subscribe(invocation.getArgument(0), List.of("AAPL"), invocation.getArgument(1), 3L));
+
+        StreamController controller = new StreamController();
+        ReflectionTestUtils.setField(controller, "alertService", alertService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new CurrentUserIdArgumentResolver())
+                .build();
+
+        AuthenticatedUser principal = new AuthenticatedUser(1L, "alice", true, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void stream_SendsUnreadCountAlertsAndWatchedPrices() throws Exception {
+        MvcResult result = open(null);
+
+        hub.publishAlerts(1L, List.of(alert(7L)));
+        hub.publishPrice("MSFT", new BigDecimal("400.00"));
+        hub.publishPrice("AAPL", new BigDecimal("150.00"));
+
+        String body = awaitContent(result, "event:price");
+        assertTrue(body.startsWith("event:unread-count\ndata:3"));
+        assertTrue(body.contains("event:alert"));
+        assertTrue(body.contains("\"symbol\":\"AAPL\""));
+        assertFalse(body.contains("MSFT"));
+    }
+
+    @Test
+    void stream_ReconnectWithLastEventId_ReplaysOnlyMissedAlerts() throws Exception {
+        MvcResult first = open(null);
+        hub.publishAlerts(1L, List.of(alert(7L), alert(8L)));
+        String firstBody = awaitContent(first, "\"id\":8");
+        Matcher ids = Pattern.compile("id:(\\d+)").matcher(firstBody);
+        assertTrue(ids.find());
+        String firstEventId = ids.group(1);
+
+        MvcResult resumed = open(firstEventId);
+
+        String body = awaitContent(resumed, "\"id\":8");
+        assertFalse(body.contains("\"id\":7"));
+        assertFalse(body.contains("event:resync"));
+    }
+
+    @Test
+    void stream_ReconnectWhilePublishing_DeliversEachAlertOnce() throws Exception {
+        ReflectionTestUtils.setField(hub, "bufferSize", 256);
+        ReflectionTestUtils.setField(hub, "replaySize", 256);
+        MvcResult first = open(null);
+        hub.publishAlerts(1L, List.of(alert(1L)));
+        Matcher ids = Pattern.compile("id:(\\d+)").matcher(awaitContent(first, "\"id\":1"));
+        assertTrue(ids.find());
+        String firstEventId = ids.group(1);
+
+        Thread publisher = new Thread(() -> {
+            for (long id = 2; id <= 40; id++) {
+                hub.publishAlerts(1L, List.of(alert(id)));
+            }
+        });
+        publisher.start();
+        MvcResult resumed = open(firstEventId);
+        publisher.join();
+
+        String body = awaitContent(resumed, "\"id\":40,");
+        for (long id = 2; id <= 40; id++) {
+            String alertId = "\"id\":" + id + ",";
+            assertEquals(body.indexOf(alertId), body.lastIndexOf(alertId), "Alert " + id + " delivered twice");
+            assertTrue(body.contains(alertId), "Alert " + id + " missing");
+        }
+    }
+
+    @Test
+    void stream_LastEventIdBeforeBuffer_AsksClientToResync() throws Exception {
+        MvcResult result = open("1");
+
+        assertTrue(awaitContent(result, "event:resync").contains("event:resync"));
+    }
+
+    private MvcResult open(String lastEventId) throws Exception {
+        var builder = get("/api/stream");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    // Events are written by sender threads, so wait for them to show up
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains(expected), "Missing " + expected + " in " + body);
+        return body;
+    }
+
+    private static AlertResponse alert(Long id) {
+        return new AlertResponse(id, "AAPL", new BigDecimal("101.00"), new BigDecimal("100.00"),
+                Alert.AlertType.MAX_PRICE_EXCEEDED, LocalDateTime.now(), false);
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.controller;
+
+import org.example.dto.BulkWatchlistResponse;
+import org.example.dto.WatchedStockResponse;
+import org.example.security.AuthenticatedUser;
+import org.example.security.CurrentUserIdArgumentResolver;
+import org.example.service.WatchedStockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class WatchlistControllerTest {
+
+    private WatchedStockService watchedStockService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        watchedStockService = mock(WatchedStockService.class);
+        WatchlistController controller = new WatchlistController();
+        ReflectionTestUtils.setField(controller, "watchedStockService", watchedStockService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new CurrentUserIdArgumentResolver())
+                .build();
+
+        AuthenticatedUser principal = new AuthenticatedUser(1L, "alice", true, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getWatchlist_MatchingETag_NotModifiedWithoutLoading() throws Exception {
+        when(watchedStockService.getWatchlistETag(1L)).thenReturn("w1-a-b");
+
+        mockMvc.perform(get("/api/watchlist").header("If-None-Match", "\"w1-a-b\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("Cache-Control", containsString("no-cache")));
+
+        verify(watchedStockService, never()).getUserWatchedStocks(anyLong());
+    }
+
+    @Test
+    void getWatchlist_ChangedETag_ReturnsWatchlist() throws Exception {
+        List<WatchedStockResponse> watchlist = List.of(new WatchedStockResponse(5L, "AAPL",
+            new BigDecimal("100"), new BigDecimal("200"), LocalDateTime.now(), true));
+        when(watchedStockService.getWatchlistETag(1L)).thenReturn(null);
+        when(watchedStockService.getUserWatchedStocks(1L)).thenReturn(watchlist);
+        when(watchedStockService.getWatchlistETag(1L, watchlist)).thenReturn("w1-a-c");
+
+        mockMvc.perform(get("/api/watchlist").header("If-None-Match", "\"w1-a-b\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"w1-a-c\""))
+            .andExpect(jsonPath("$[0].symbol").value("AAPL"));
+    }
+
+    @Test
+    void importWatchlist_CsvBody_ImportedAsCsv() throws Exception {
+        String csv = "symbol,minPrice,maxPrice\nMSFT,300,400\n";
+        when(watchedStockService.importCsv(csv, 1L)).thenReturn(new BulkWatchlistResponse(List.of()));
+
+        mockMvc.perform(post("/api/watchlist/bulk").contentType("text/csv").content(csv))
+            .andExpect(status().isOk());
+
+        verify(watchedStockService).importCsv(csv, 1L);
+        verify(watchedStockService, never()).importWatchedStocks(anyList(), anyLong());
+    }
+}
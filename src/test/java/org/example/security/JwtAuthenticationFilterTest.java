@@ -0,0 +1,124 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private UserDetailsService userDetailsService;
+    private JwtTokenProvider tokenProvider;
+    private PrincipalCache principalCache;
+    private JwtAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("alice", "alice@example.com", "hash");
+        user.setId(7L);
+        userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user);
+
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "testSecretKey1234567890123456789012345678");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 60000);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheTtl", 60000L);
+        tokenProvider.init();
+
+        principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(principalCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(principalCache, "ttl", 60000L);
+        ReflectionTestUtils.setField(principalCache, "maxSize", 100L);
+        principalCache.init();
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_RepeatedRequests_LoadUserOnce() throws Exception {
+        String token = tokenFor(user);
+
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+
+        assertEquals(7L, ((AuthenticatedUser) first.getPrincipal()).getId());
+        assertSame(first.getPrincipal(), second.getPrincipal());
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void doFilter_EvictedPrincipal_ReloadsAndRejectsDisabledUser() throws Exception {
+        String token = tokenFor(user);
+        authenticate(token);
+
+        user.setEnabled(false);
+        principalCache.evict("alice");
+
+        assertNull(authenticate(token));
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void doFilter_Stateless_TrustsTokenClaimsWithoutLookup() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+
+        Authentication authentication = authenticate(tokenFor(user));
+
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        assertEquals(7L, principal.getId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals("ROLE_USER", principal.getAuthorities().iterator().next().getAuthority());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void verify_RepeatedToken_ReturnsCachedClaims() {
+        String token = tokenFor(user);
+
+        assertSame(tokenProvider.verify(token), tokenProvider.verify(token));
+    }
+
+    @Test
+    void doFilter_TamperedSignature_NotAuthenticated() throws Exception {
+        String token = tokenFor(user);
+        authenticate(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(tokenProvider.verify(tampered));
+        assertNull(authenticate(tampered));
+    }
+
+    private String tokenFor(User user) {
+        return tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/alerts");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.service;
+
+import org.example.dto.SymbolThresholdBounds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePollSchedulerTest {
+
+    private static final long BASE = 300_000;
+
+    private AdaptivePollScheduler scheduler;
+
+    private SymbolThresholdBounds near;
+    private SymbolThresholdBounds far;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new AdaptivePollScheduler();
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "baseInterval", BASE);
+        ReflectionTestUtils.setField(scheduler, "minInterval", 60_000L);
+        ReflectionTestUtils.setField(scheduler, "maxInterval", 1_800_000L);
+        ReflectionTestUtils.setField(scheduler, "safetyFactor", 4.0);
+
+        near = new SymbolThresholdBounds("NEAR", new BigDecimal("99.50"), null);
+        far = new SymbolThresholdBounds("FAR", new BigDecimal("60.00"), null);
+    }
+
+    @Test
+    void dueSymbols_NothingPolledYet_AllDue() {
+        List<SymbolThresholdBounds> due = scheduler.dueSymbols(List.of(near, far), 0);
+
+        assertEquals(2, due.size());
+    }
+
+    @Test
+    void recordPrice_NearThreshold_PolledSoonerThanDistantSymbol() {
+        scheduler.dueSymbols(List.of(near, far), 0);
+        observe("NEAR", "100.00", "101.00", "100.00");
+        observe("FAR", "100.00", "101.00", "100.00");
+
+        long now = 2 * BASE + 60_000;
+        List<SymbolThresholdBounds> due = scheduler.dueSymbols(List.of(near, far), now);
+
+        assertEquals(List.of(near), due);
+    }
+
+    @Test
+    void dueSymbols_ThresholdMoved_BecomesDueImmediately() {
+        scheduler.dueSymbols(List.of(far), 0);
+        observe("FAR", "100.00", "101.00", "100.00");
+
+        SymbolThresholdBounds moved = new SymbolThresholdBounds("FAR", new BigDecimal("99.90"), null);
+        List<SymbolThresholdBounds> due = scheduler.dueSymbols(List.of(moved), 2 * BASE + 1);
+
+        assertEquals(List.of(moved), due);
+    }
+
+    @Test
+    void recordPrice_SameSampleSeenTwice_AddsNoVolatility() {
+        scheduler.dueSymbols(List.of(near), 0);
+        scheduler.recordPrice("NEAR", new BigDecimal("100.00"), 0, 0);
+        scheduler.recordPrice("NEAR", new BigDecimal("100.00"), 0, BASE);
+
+        // Still a single sample, so the next poll stays at the base interval
+        assertTrue(scheduler.dueSymbols(List.of(near), 2 * BASE - 1).isEmpty());
+        assertEquals(List.of(near), scheduler.dueSymbols(List.of(near), 2 * BASE));
+    }
+
+    @Test
+    void init_TickLongerThanMinInterval_Fails() {
+        ReflectionTestUtils.setField(scheduler, "tickInterval", BASE);
+
+        assertThrows(IllegalStateException.class, scheduler::init);
+    }
+
+    @Test
+    void dueSymbols_Disabled_ReturnsEverySymbol() {
+        ReflectionTestUtils.setField(scheduler, "enabled", false);
+        scheduler.recordPrice("FAR", new BigDecimal("100.00"), 0, 0);
+
+        assertEquals(2, scheduler.dueSymbols(List.of(near, far), 1).size());
+    }
+
+    private void observe(String symbol, String... prices) {
+        for (int i = 0; i < prices.length; i++) {
+            scheduler.recordPrice(symbol, new BigDecimal(prices[i]), i * BASE, i * BASE);
+        }
+    }
+}
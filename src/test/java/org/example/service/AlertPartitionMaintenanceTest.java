@@ -0,0 +1,63 @@
+package org.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class AlertPartitionMaintenanceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AlertPartitionMaintenance maintenance;
+    private UnreadAlertCounter unreadAlertCounter;
+    private UserDataVersions userDataVersions;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:retention;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS alerts");
+        jdbcTemplate.execute("CREATE TABLE alerts (id BIGINT PRIMARY KEY, triggered_at TIMESTAMP NOT NULL)");
+
+        maintenance = new AlertPartitionMaintenance();
+        unreadAlertCounter = mock(UnreadAlertCounter.class);
+        ReflectionTestUtils.setField(maintenance, "jdbcTemplate", jdbcTemplate);
+        userDataVersions = mock(UserDataVersions.class);
+        ReflectionTestUtils.setField(maintenance, "unreadAlertCounter", unreadAlertCounter);
+        ReflectionTestUtils.setField(maintenance, "userDataVersions", userDataVersions);
+        ReflectionTestUtils.setField(maintenance, "retentionMonths", 1);
+        ReflectionTestUtils.setField(maintenance, "retentionMode", "drop");
+        ReflectionTestUtils.setField(maintenance, "deleteBatchSize", 2);
+    }
+
+    @Test
+    void maintain_Unpartitioned_DeletesExpiredRowsInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO alerts VALUES (?, ?)", id, now.minusMonths(3));
+        }
+        jdbcTemplate.update("INSERT INTO alerts VALUES (?, ?)", 6L, now);
+
+        maintenance.maintain();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM alerts", Integer.class));
+        verify(unreadAlertCounter).reconcile();
+        verify(userDataVersions).allAlertsChanged();
+    }
+
+    @Test
+    void partitionMonth_RoundTripsPartitionName() {
+        YearMonth month = YearMonth.of(2024, 3);
+
+        assertEquals("alerts_p202403", AlertPartitionMaintenance.partitionName(month));
+        assertEquals(month, AlertPartitionMaintenance.partitionMonth("alerts_p202403"));
+        assertNull(AlertPartitionMaintenance.partitionMonth("alerts_default"));
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.entity.Alert;
+import org.example.repository.AlertRepository;
+import org.example.repository.UserRepository;
+import org.example.repository.WatchedStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlertServiceTest {
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WatchedStockRepository watchedStockRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private UnreadAlertCounter unreadAlertCounter;
+
+    @Mock
+    private EventStreamHub eventStreamHub;
+
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private UserDataVersions userDataVersions;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry;
+
+    @InjectMocks
+    private AlertService alertService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(alertService, "flushChunkSize", 2);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void saveBatch_SplitsIntoOneTransactionPerChunk() {
+        List<TriggeredAlert> failed = alertService.saveBatch(triggered(5));
+
+        assertTrue(failed.isEmpty());
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        verify(alertRepository, times(3)).saveAll(anyList());
+        verify(notificationOutbox, times(3)).enqueue(anyMap());
+        assertEquals(5.0, meterRegistry.summary("stockwatch.alerts.flush.size").totalAmount());
+        assertEquals(3, meterRegistry.timer("stockwatch.alerts.flush").count());
+    }
+
+    @Test
+    void saveBatch_FailedChunk_ContinuesWithRemainingChunks() {
+        when(alertRepository.saveAll(anyList()))
+                .thenThrow(new RuntimeException("connection reset"))
+                .thenReturn(List.of());
+
+        List<TriggeredAlert> alerts = triggered(4);
+        List<TriggeredAlert> failed = alertService.saveBatch(alerts);
+
+        assertEquals(alerts.subList(0, 2), failed);
+        verify(alertRepository, times(2)).saveAll(anyList());
+    }
+
+    private static List<TriggeredAlert> triggered(int count) {
+        List<TriggeredAlert> alerts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            alerts.add(new TriggeredAlert(i, 1L, "AAPL", Alert.AlertType.MAX_PRICE_EXCEEDED,
+                new BigDecimal("100.00"), new BigDecimal("101.00"), LocalDateTime.now()));
+        }
+        return alerts;
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.service;
+
+import org.example.dto.WatchThresholdRow;
+import org.example.entity.Alert;
+import org.example.repository.WatchedStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlertTriggerStateTest {
+
+    @Mock
+    private WatchedStockRepository watchedStockRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AlertTriggerState state;
+
+    private final ThresholdIndex.Trigger minTrigger =
+        new ThresholdIndex.Trigger(1L, 10L, Alert.AlertType.MIN_PRICE_EXCEEDED, new BigDecimal("100.00"));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(state, "hysteresisBand", new BigDecimal("0.01"));
+    }
+
+    @Test
+    void transitions_ConditionHolds_AlertsOnlyOnce() {
+        assertEquals(List.of(minTrigger), state.transitions("AAPL", new BigDecimal("99.00"), List.of(minTrigger)));
+        assertTrue(state.transitions("AAPL", new BigDecimal("98.00"), List.of(minTrigger)).isEmpty());
+        assertTrue(state.isTriggered("AAPL", 1L, Alert.AlertType.MIN_PRICE_EXCEEDED));
+    }
+
+    @Test
+    void transitions_PriceInsideBand_StaysTriggered() {
+        state.transitions("AAPL", new BigDecimal("99.00"), List.of(minTrigger));
+        state.transitions("AAPL", new BigDecimal("100.50"), List.of());
+
+        assertTrue(state.transitions("AAPL", new BigDecimal("99.90"), List.of(minTrigger)).isEmpty());
+    }
+
+    @Test
+    void transitions_PriceClearsBand_RearmsAndAlertsAgain() {
+        state.transitions("AAPL", new BigDecimal("99.00"), List.of(minTrigger));
+        state.transitions("AAPL", new BigDecimal("101.00"), List.of());
+
+        assertFalse(state.isTriggered("AAPL", 1L, Alert.AlertType.MIN_PRICE_EXCEEDED));
+        assertEquals(List.of(minTrigger), state.transitions("AAPL", new BigDecimal("99.50"), List.of(minTrigger)));
+    }
+
+    @Test
+    void restore_TriggeredCheckpoint_SuppressesRepeat() {
+        state.restore(List.of(new WatchThresholdRow(1L, 10L, "AAPL", new BigDecimal("100.00"), null, true, false)));
+
+        assertTrue(state.transitions("AAPL", new BigDecimal("99.00"), List.of(minTrigger)).isEmpty());
+    }
+
+    @Test
+    void checkpoint_WritesChangedWatchesOnce() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        state.transitions("AAPL", new BigDecimal("99.00"), List.of(minTrigger));
+        state.checkpoint();
+        state.checkpoint();
+
+        verify(watchedStockRepository, times(1)).updateAlertTriggerState(true, false, List.of(1L));
+    }
+}
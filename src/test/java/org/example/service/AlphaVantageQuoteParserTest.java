@@ -0,0 +1,79 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlphaVantageQuoteParserTest {
+
+    private final AlphaVantageQuoteParser parser = new AlphaVantageQuoteParser();
+    private final Instant now = Instant.parse("2024-02-05T10:00:00Z");
+
+    @Test
+    void parseGlobalQuote_FullResponse_ExtractsQuoteFields() {
+        Quote quote = parser.parseGlobalQuote("IBM", bytes("""
+            {"Global Quote": {"01. symbol": "IBM", "02. open": "185.5100", "05. price": "187.1800",
+              "06. volume": "4018510", "07. latest trading day": "2024-02-02",
+              "08. previous close": "183.6600", "09. change": "3.5200", "10. change percent": "1.9166%"}}
+            """), now);
+
+        assertEquals(new BigDecimal("187.1800"), quote.price());
+        assertEquals(4018510L, quote.volume());
+        assertEquals(new BigDecimal("3.5200"), quote.change());
+        assertEquals(LocalDate.of(2024, 2, 2), quote.latestTradingDay());
+        assertEquals(now, quote.fetchedAt());
+    }
+
+    @Test
+    void parseGlobalQuote_EmptyQuote_PriceNotFound() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+            () -> parser.parseGlobalQuote("NOPE", bytes("{\"Global Quote\": {}}"), now));
+
+        assertTrue(e.getMessage().startsWith("Price not found"));
+    }
+
+    @Test
+    void parseGlobalQuote_PlaceholderValues_TreatedAsMissing() {
+        Quote quote = parser.parseGlobalQuote("IBM", bytes("""
+            {"Global Quote": {"01. symbol": "IBM", "05. price": "187.1800", "09. change": "-"}}
+            """), now);
+        assertNull(quote.change());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> parser.parseGlobalQuote("IBM",
+            bytes("{\"Global Quote\": {\"01. symbol\": \"IBM\", \"05. price\": \"None\"}}"), now));
+        assertTrue(e.getMessage().startsWith("Price not found"));
+    }
+
+    @Test
+    void parseGlobalQuote_RateLimitNote_Throttled() {
+        assertThrows(QuoteThrottledException.class, () -> parser.parseGlobalQuote("IBM",
+            bytes("{\"Note\": \"Thank you for using Alpha Vantage! Our standard API call frequency is 5 calls per minute.\"}"), now));
+    }
+
+    @Test
+    void parseBulkQuotes_SkipsEntriesWithoutPrice() {
+        Map<String, Quote> quotes = parser.parseBulkQuotes(bytes("""
+            {"endpoint": "Realtime Bulk Quotes", "message": "", "data": [
+              {"symbol": "msft", "timestamp": "2024-02-02 16:00:00.000", "close": "411.22", "volume": "25012345", "change": "7.44"},
+              {"symbol": "AAPL", "close": ""},
+              {"symbol": "TSLA", "close": "None"},
+              {"symbol": "IBM", "close": 187.18}
+            ]}
+            """), now);
+
+        assertEquals(2, quotes.size());
+        assertEquals(new BigDecimal("411.22"), quotes.get("MSFT").price());
+        assertEquals(LocalDate.of(2024, 2, 2), quotes.get("MSFT").latestTradingDay());
+        assertEquals(new BigDecimal("187.18"), quotes.get("IBM").price());
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -12,10 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
 
@@ -30,17 +27,14 @@ class AuthServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private LoginThrottle loginThrottle;
 
     @Mock
     private JwtTokenProvider tokenProvider;
 
-    @Mock
-    private Authentication authentication;
-
     @InjectMocks
     private AuthService authService;
 
@@ -60,11 +54,9 @@ class AuthServiceTest {
     void register_ValidRequest_ReturnsAuthResponse() {
         when(userRepository.existsByUsername("testuser")).thenReturn(false);
         when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
-        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+        when(passwordHasher.encode("password")).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-            .thenReturn(authentication);
-        when(tokenProvider.generateToken(authentication)).thenReturn("jwt-token");
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("jwt-token");
 
         AuthResponse response = authService.register(registerRequest);
 
@@ -74,6 +66,7 @@ class AuthServiceTest {
         assertEquals("test@example.com", response.getEmail());
 
         verify(userRepository).save(any(User.class));
+        verify(passwordHasher, never()).matches(any(), any());
     }
 
     @Test
@@ -85,15 +78,53 @@ class AuthServiceTest {
 
     @Test
     void login_ValidCredentials_ReturnsAuthResponse() {
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-            .thenReturn(authentication);
-        when(tokenProvider.generateToken(authentication)).thenReturn("jwt-token");
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("password", "encodedPassword")).thenReturn(true);
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("jwt-token");
 
-        AuthResponse response = authService.login(loginRequest);
+        AuthResponse response = authService.login(loginRequest, "10.0.0.1");
 
         assertNotNull(response);
         assertEquals("jwt-token", response.getToken());
         assertEquals("testuser", response.getUsername());
+        verify(loginThrottle).recordSuccess("10.0.0.1", "testuser");
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void login_WrongPassword_RecordsFailure() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("password", "encodedPassword")).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> authService.login(loginRequest, "10.0.0.1"));
+
+        // The attempt counted up front stays counted
+        verify(loginThrottle).attempt("10.0.0.1", "testuser");
+        verifyNoMoreInteractions(loginThrottle);
+        verifyNoInteractions(tokenProvider);
+    }
+
+    @Test
+    void login_Throttled_RefusesBeforeHashing() {
+        doThrow(new AuthThrottledException("Too many failed sign-in attempts", 60))
+            .when(loginThrottle).attempt("10.0.0.1", "testuser");
+
+        assertThrows(AuthThrottledException.class, () -> authService.login(loginRequest, "10.0.0.1"));
+
+        verifyNoInteractions(passwordHasher, userRepository);
+    }
+
+    @Test
+    void login_HashWithOldCost_RehashesPassword() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("password", "encodedPassword")).thenReturn(true);
+        when(passwordHasher.needsRehash("encodedPassword")).thenReturn(true);
+        when(passwordHasher.encode("password")).thenReturn("rehashedPassword");
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("jwt-token");
+
+        authService.login(loginRequest, "10.0.0.1");
+
+        assertEquals("rehashedPassword", testUser.getPassword());
+        verify(userRepository).save(testUser);
     }
 }
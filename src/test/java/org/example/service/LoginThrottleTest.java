@@ -0,0 +1,64 @@
+package org.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottle();
+        ReflectionTestUtils.setField(throttle, "window", 60000L);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerUser", 5);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerIp", 20);
+        ReflectionTestUtils.setField(throttle, "maxKeys", 100L);
+        throttle.init();
+    }
+
+    @Test
+    void attempt_ParallelGuesses_OnlyLimitGetThrough() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> guesses = IntStream.range(0, 40)
+                .<Callable<Boolean>>mapToObj(i -> () -> {
+                    try {
+                        throttle.attempt("10.0.0." + i, "alice");
+                        return true;
+                    } catch (AuthThrottledException e) {
+                        return false;
+                    }
+                })
+                .toList();
+
+            int allowed = 0;
+            for (Future<Boolean> result : executor.invokeAll(guesses)) {
+                allowed += result.get() ? 1 : 0;
+            }
+            assertEquals(5, allowed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void recordSuccess_GivesTheAttemptBack() {
+        for (int i = 0; i < 10; i++) {
+            throttle.attempt("10.0.0.1", "alice");
+            throttle.recordSuccess("10.0.0.1", "alice");
+        }
+
+        assertDoesNotThrow(() -> throttle.attempt("10.0.0.1", "alice"));
+    }
+}
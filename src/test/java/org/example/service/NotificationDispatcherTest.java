@@ -0,0 +1,161 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationDispatcherTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NotificationDispatcher dispatcher;
+    private FakeChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS notification_outbox");
+        jdbcTemplate.execute("CREATE TABLE notification_outbox (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "alert_id BIGINT NOT NULL, user_id BIGINT NOT NULL, channel VARCHAR(20) NOT NULL, " +
+                "idempotency_key VARCHAR(100) NOT NULL UNIQUE, payload TEXT NOT NULL, status VARCHAR(20) NOT NULL, " +
+                "attempts INT NOT NULL, next_attempt_at TIMESTAMP NOT NULL, claim_token VARCHAR(36), " +
+                "last_error VARCHAR(500), created_at TIMESTAMP NOT NULL, sent_at TIMESTAMP)");
+
+        channel = new FakeChannel();
+        dispatcher = new NotificationDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(dispatcher, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "channels", List.of(channel));
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "lease", 60000L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 2);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitial", 60000L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMax", 600000L);
+        ReflectionTestUtils.setField(dispatcher, "retentionDays", 7);
+        ReflectionTestUtils.setField(dispatcher, "deleteBatchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_SendsDueRowsOnceAndMarksThemSent() throws InterruptedException {
+        insert(1L, "PENDING", LocalDateTime.now().minusSeconds(1));
+        insert(2L, "PENDING", LocalDateTime.now().minusSeconds(1));
+        insert(3L, "PENDING", LocalDateTime.now().plusHours(1));
+
+        dispatcher.dispatch();
+        awaitSends(2);
+        dispatcher.dispatch();
+
+        assertEquals(Map.of("alert-1-fake", 1, "alert-2-fake", 1), channel.sends);
+        assertEquals(2, count("SENT"));
+        assertEquals(1, count("PENDING"));
+    }
+
+    @Test
+    void dispatch_FailedSend_RetriesWithBackoffThenGivesUp() throws InterruptedException {
+        channel.failing = true;
+        insert(1L, "PENDING", LocalDateTime.now().minusSeconds(1));
+
+        dispatcher.dispatch();
+        awaitSends(1);
+        dispatcher.flushResults();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM notification_outbox");
+        assertEquals("PENDING", row.get("STATUS"));
+        assertEquals(1, row.get("ATTEMPTS"));
+        assertEquals("webhook down", row.get("LAST_ERROR"));
+        assertTrue(((Timestamp) row.get("NEXT_ATTEMPT_AT")).toLocalDateTime().isAfter(LocalDateTime.now().plusSeconds(20)));
+
+        jdbcTemplate.update("UPDATE notification_outbox SET next_attempt_at = ?", LocalDateTime.now().minusSeconds(1));
+        dispatcher.dispatch();
+        awaitSends(2);
+        dispatcher.flushResults();
+
+        assertEquals(1, count("FAILED"));
+    }
+
+    @Test
+    void dispatch_ExpiredLease_ReclaimsRow() throws InterruptedException {
+        insert(1L, "SENDING", LocalDateTime.now().minusSeconds(1));
+        insert(2L, "SENDING", LocalDateTime.now().plusMinutes(5));
+
+        dispatcher.dispatch();
+        awaitSends(1);
+
+        assertEquals(Map.of("alert-1-fake", 1), channel.sends);
+    }
+
+    @Test
+    void cleanup_DeletesOldFinishedRowsOnly() {
+        insert(1L, "SENT", LocalDateTime.now());
+        insert(2L, "FAILED", LocalDateTime.now());
+        insert(3L, "PENDING", LocalDateTime.now());
+        insert(4L, "SENT", LocalDateTime.now());
+        jdbcTemplate.update("UPDATE notification_outbox SET created_at = ? WHERE alert_id < 4", LocalDateTime.now().minusDays(8));
+
+        dispatcher.cleanup();
+
+        assertEquals(List.of(3L, 4L), jdbcTemplate.queryForList("SELECT alert_id FROM notification_outbox ORDER BY alert_id", Long.class));
+    }
+
+    private void insert(Long alertId, String status, LocalDateTime nextAttemptAt) {
+        jdbcTemplate.update("INSERT INTO notification_outbox (alert_id, user_id, channel, idempotency_key, payload, status, " +
+                "attempts, next_attempt_at, created_at) VALUES (?, 1, 'fake', ?, '{}', ?, 0, ?, ?)",
+                alertId, NotificationOutbox.idempotencyKey(alertId, "fake"), status, nextAttemptAt, LocalDateTime.now());
+    }
+
+    private int count(String status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_outbox WHERE status = ?", Integer.class, status);
+    }
+
+    private void awaitSends(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (channel.total.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, channel.total.get());
+        // The result is queued right after the send returns
+        Thread.sleep(50);
+    }
+
+    private static final class FakeChannel implements NotificationChannel {
+        private final Map<String, Integer> sends = new ConcurrentHashMap<>();
+        private final AtomicInteger total = new AtomicInteger();
+        private volatile boolean failing;
+
+        @Override
+        public String name() {
+            return "fake";
+        }
+
+        @Override
+        public int concurrency() {
+            return 2;
+        }
+
+        @Override
+        public void send(Notification notification) {
+            sends.merge(notification.idempotencyKey(), 1, Integer::sum);
+            total.incrementAndGet();
+            if (failing) {
+                throw new RuntimeException("webhook down");
+            }
+        }
+    }
+}
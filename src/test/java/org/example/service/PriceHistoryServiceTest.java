@@ -0,0 +1,167 @@
+package org.example.service;
+
+import org.example.dto.PriceHistoryPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceHistoryServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private PriceHistoryStore store;
+    private PriceHistoryService service;
+
+    @BeforeEach
+    void setUp() {
+        store = newStore();
+        service = new PriceHistoryService();
+        ReflectionTestUtils.setField(service, "store", store);
+        ReflectionTestUtils.setField(service, "maxPoints", 1000);
+        ReflectionTestUtils.setField(service, "maxRangeDays", 400);
+        ReflectionTestUtils.setField(service, "maxTickRangeDays", 2);
+        ReflectionTestUtils.setField(service, "rawRetentionDays", 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void getHistory_Ticks_ReturnedInTimeOrderForSymbol() {
+        Instant start = Instant.parse("2024-03-01T14:30:00Z");
+        append("AAPL", start.plusSeconds(30), "101.00");
+        append("MSFT", start.plusSeconds(10), "400.00");
+        append("AAPL", start, "100.00");
+
+        List<PriceHistoryPoint> ticks = service.getHistory("AAPL", start, start.plusSeconds(60), HistoryResolution.TICK);
+
+        assertEquals(2, ticks.size());
+        assertEquals(start.toString(), ticks.get(0).getTimestamp());
+        assertPrice("101.00", ticks.get(1).getClose());
+    }
+
+    @Test
+    void getHistory_MinuteBars_SameBeforeAndAfterRollup() {
+        Instant start = Instant.parse("2024-03-01T14:30:00Z");
+        append("AAPL", start, "100.00");
+        append("AAPL", start.plusSeconds(20), "103.00");
+        append("AAPL", start.plusSeconds(40), "99.00");
+        append("AAPL", start.plusSeconds(50), "101.00");
+        append("AAPL", start.plusSeconds(70), "102.00");
+
+        List<PriceHistoryPoint> live = service.getHistory("AAPL", start, start.plus(1, ChronoUnit.HOURS), HistoryResolution.MINUTE);
+        service.rollup();
+        List<PriceHistoryPoint> rolled = service.getHistory("AAPL", start, start.plus(1, ChronoUnit.HOURS), HistoryResolution.MINUTE);
+
+        assertEquals(2, rolled.size());
+        PriceHistoryPoint first = rolled.get(0);
+        assertPrice("100.00", first.getOpen());
+        assertPrice("103.00", first.getHigh());
+        assertPrice("99.00", first.getLow());
+        assertPrice("101.00", first.getClose());
+        assertEquals(4, first.getTicks());
+        assertEquals(live.size(), rolled.size());
+        assertEquals(live.get(1).getTimestamp(), rolled.get(1).getTimestamp());
+    }
+
+    @Test
+    void getHistory_TicksAfterRollup_MergedIntoRolledBars() {
+        Instant start = Instant.parse("2024-03-01T14:30:00Z");
+        append("AAPL", start, "100.00");
+        append("AAPL", start.plusSeconds(20), "103.00");
+        service.rollup();
+        append("AAPL", start.plusSeconds(40), "99.00");
+        append("AAPL", start.plusSeconds(70), "102.00");
+
+        List<PriceHistoryPoint> bars = service.getHistory("AAPL", start, start.plus(1, ChronoUnit.HOURS), HistoryResolution.MINUTE);
+
+        assertEquals(2, bars.size());
+        PriceHistoryPoint first = bars.get(0);
+        assertPrice("100.00", first.getOpen());
+        assertPrice("103.00", first.getHigh());
+        assertPrice("99.00", first.getLow());
+        assertPrice("99.00", first.getClose());
+        assertEquals(3, first.getTicks());
+        assertPrice("102.00", bars.get(1).getClose());
+    }
+
+    @Test
+    void getHistory_TickRangeTooLong_Rejected() {
+        Instant start = Instant.parse("2024-03-01T00:00:00Z");
+
+        assertThrows(InvalidHistoryRequestException.class,
+                () -> service.getHistory("AAPL", start, start.plus(3, ChronoUnit.DAYS), HistoryResolution.TICK));
+    }
+
+    @Test
+    void append_BeyondInitialCapacity_GrowsSegmentAndSurvivesReopen() {
+        Instant start = Instant.parse("2024-03-01T00:00:00Z");
+        for (int i = 0; i < 10; i++) {
+            append("AAPL", start.plusSeconds(i), "100." + i);
+        }
+        store.close();
+        store = newStore();
+        ReflectionTestUtils.setField(service, "store", store);
+
+        assertEquals(10, store.tickCount(LocalDate.of(2024, 3, 1)));
+        assertEquals(10, service.getHistory("AAPL", start, start.plusSeconds(60), HistoryResolution.TICK).size());
+    }
+
+    @Test
+    void appendLater_WrittenBeforeClose() {
+        Instant start = Instant.parse("2024-03-01T00:00:00Z");
+        for (int i = 0; i < 5; i++) {
+            store.appendLater(new Quote("AAPL", new BigDecimal("100." + i), start.plusSeconds(i)));
+        }
+        store.close();
+        store = newStore();
+
+        assertEquals(5, store.tickCount(LocalDate.of(2024, 3, 1)));
+    }
+
+    @Test
+    void rollup_PastRawRetention_KeepsBars() {
+        ReflectionTestUtils.setField(service, "rawRetentionDays", 1);
+        Instant old = LocalDate.now(ZoneOffset.UTC).minusDays(10).atTime(12, 0).toInstant(ZoneOffset.UTC);
+        append("AAPL", old, "100.00");
+
+        service.rollup();
+
+        assertFalse(store.hasTicks(LocalDate.ofInstant(old, ZoneOffset.UTC)));
+        assertTrue(service.getHistory("AAPL", old, old.plusSeconds(60), HistoryResolution.TICK).isEmpty());
+        assertEquals(1, service.getHistory("AAPL", old.minus(1, ChronoUnit.DAYS), old.plus(1, ChronoUnit.DAYS),
+                HistoryResolution.DAY).size());
+    }
+
+    private PriceHistoryStore newStore() {
+        PriceHistoryStore created = new PriceHistoryStore();
+        ReflectionTestUtils.setField(created, "enabled", true);
+        ReflectionTestUtils.setField(created, "directory", directory.toString());
+        ReflectionTestUtils.setField(created, "initialRecords", 2);
+        created.init();
+        return created;
+    }
+
+    private void append(String symbol, Instant time, String price) {
+        store.append(new Quote(symbol, new BigDecimal(price), time));
+    }
+
+    private static void assertPrice(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> expected + " != " + actual);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.WatchThresholdRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class QuoteCacheTest {
+
+    private StockPriceService stockPriceService;
+    private QuoteCache quoteCache;
+
+    @BeforeEach
+    void setUp() {
+        stockPriceService = mock(StockPriceService.class);
+        when(stockPriceService.getInteractiveQuotes(anyList())).thenAnswer(invocation -> {
+            List<String> symbols = invocation.getArgument(0);
+            return symbols.stream().collect(Collectors.toMap(
+                    Function.identity(), symbol -> new Quote(symbol, new BigDecimal("10.00"), Instant.now())));
+        });
+
+        ThresholdIndex thresholdIndex = new ThresholdIndex();
+        thresholdIndex.rebuild(List.of(
+                new WatchThresholdRow(1L, 10L, "AAPL", new BigDecimal("100.00"), null),
+                new WatchThresholdRow(2L, 11L, "MSFT", new BigDecimal("100.00"), null),
+                new WatchThresholdRow(3L, 12L, "GOOG", new BigDecimal("100.00"), null)).stream());
+
+        UserQuoteLimiter userQuoteLimiter = new UserQuoteLimiter();
+        ReflectionTestUtils.setField(userQuoteLimiter, "maxSymbols", 2);
+        ReflectionTestUtils.setField(userQuoteLimiter, "window", 60000L);
+        ReflectionTestUtils.setField(userQuoteLimiter, "maxUsers", 100L);
+        userQuoteLimiter.init();
+
+        quoteCache = new QuoteCache();
+        ReflectionTestUtils.setField(quoteCache, "stockPriceService", stockPriceService);
+        ReflectionTestUtils.setField(quoteCache, "thresholdIndex", thresholdIndex);
+        ReflectionTestUtils.setField(quoteCache, "userQuoteLimiter", userQuoteLimiter);
+        ReflectionTestUtils.setField(quoteCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(quoteCache, "ttl", 60000L);
+        ReflectionTestUtils.setField(quoteCache, "maxSize", 100L);
+        quoteCache.init();
+    }
+
+    @Test
+    void getQuotesForUser_UnwatchedSymbol_ServedFromCacheOnly() {
+        Map<String, Quote> quotes = quoteCache.getQuotesForUser(1L, List.of("AAPL", "ZZZZ"));
+
+        assertEquals(List.of("AAPL"), List.copyOf(quotes.keySet()));
+        verify(stockPriceService).getInteractiveQuotes(List.of("AAPL"));
+    }
+
+    @Test
+    void getQuotesForUser_OverLimit_Throttled() {
+        quoteCache.getQuotesForUser(1L, List.of("AAPL", "MSFT"));
+        quoteCache.getQuotesForUser(1L, List.of("AAPL", "MSFT"));
+        verify(stockPriceService, times(1)).getInteractiveQuotes(anyList());
+
+        // Cached symbols are free; the next miss is over this user's allowance but not another's
+        QuoteLimitExceededException e = assertThrows(QuoteLimitExceededException.class,
+                () -> quoteCache.getQuotesForUser(1L, List.of("GOOG")));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertEquals(1, quoteCache.getQuotesForUser(2L, List.of("GOOG")).size());
+    }
+
+    @Test
+    void getQuotesForUser_MoreMissesThanAllowance_FetchesWhatIsLeft() {
+        Map<String, Quote> quotes = quoteCache.getQuotesForUser(1L, List.of("AAPL", "MSFT", "GOOG"));
+
+        assertEquals(Set.of("AAPL", "MSFT"), quotes.keySet());
+        verify(stockPriceService).getInteractiveQuotes(List.of("AAPL", "MSFT"));
+        assertThrows(QuoteLimitExceededException.class, () -> quoteCache.getQuotesForUser(1L, List.of("GOOG")));
+    }
+}
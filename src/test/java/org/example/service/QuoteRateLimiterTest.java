@@ -0,0 +1,46 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteRateLimiterTest {
+
+    private QuoteRateLimiter limiter(int perMinute, int perDay, int interactivePerMinute) {
+        QuoteRateLimiter limiter = new QuoteRateLimiter();
+        ReflectionTestUtils.setField(limiter, "perMinute", perMinute);
+        ReflectionTestUtils.setField(limiter, "perDay", perDay);
+        ReflectionTestUtils.setField(limiter, "burst", 1);
+        ReflectionTestUtils.setField(limiter, "interactivePerMinute", interactivePerMinute);
+        ReflectionTestUtils.setField(limiter, "throttlePenalty", 60000L);
+        limiter.init();
+        return limiter;
+    }
+
+    @Test
+    void reserve_DailyBudgetExhausted_DoesNotPenaliseMinuteBucket() {
+        QuoteRateLimiter limiter = limiter(60, 1, 0);
+
+        assertEquals(Duration.ZERO, limiter.reserve());
+        assertThrows(QuoteBudgetExhaustedException.class, limiter::reserve);
+
+        // The minute bucket still refills normally instead of serving a throttle penalty
+        ReflectionTestUtils.setField(limiter, "dayBucket", null);
+        assertTrue(limiter.reserve().toMillis() <= 1000);
+    }
+
+    @Test
+    void reserveInteractive_NotQueuedBehindPacedMonitor() {
+        QuoteRateLimiter limiter = limiter(5, 0, 1);
+        limiter.spreadAcross(4, Duration.ofMinutes(1));
+
+        limiter.reserve();
+        limiter.reserve();
+        limiter.reserve();
+
+        assertEquals(Duration.ZERO, limiter.reserveInteractive());
+    }
+}
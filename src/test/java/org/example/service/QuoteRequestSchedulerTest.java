@@ -0,0 +1,73 @@
+package org.example.service;
+
+import org.example.dto.SymbolThresholdBounds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteRequestSchedulerTest {
+
+    @Mock
+    private QuoteRateLimiter rateLimiter;
+
+    @InjectMocks
+    private QuoteRequestScheduler scheduler;
+
+    private List<SymbolThresholdBounds> bounds;
+
+    @BeforeEach
+    void setUp() {
+        bounds = List.of(
+            new SymbolThresholdBounds("FAR", new BigDecimal("50.00"), null),
+            new SymbolThresholdBounds("NEAR", null, new BigDecimal("101.00")),
+            new SymbolThresholdBounds("MID", new BigDecimal("90.00"), new BigDecimal("200.00"))
+        );
+        scheduler.recordPrice("FAR", new BigDecimal("100.00"));
+        scheduler.recordPrice("NEAR", new BigDecimal("100.00"));
+        scheduler.recordPrice("MID", new BigDecimal("100.00"));
+    }
+
+    @Test
+    void plan_UnlimitedQuota_OrdersByDistanceToNearestThreshold() {
+        when(rateLimiter.isEnabled()).thenReturn(false);
+
+        List<String> symbols = scheduler.plan(bounds, 1, Duration.ofMinutes(5));
+
+        assertEquals(List.of("NEAR", "MID", "FAR"), symbols);
+    }
+
+    @Test
+    void plan_BudgetShort_KeepsSymbolsClosestToThreshold() {
+        when(rateLimiter.isEnabled()).thenReturn(true);
+        when(rateLimiter.availableWithin(any(Duration.class))).thenReturn(2);
+
+        List<String> symbols = scheduler.plan(bounds, 1, Duration.ofMinutes(5));
+
+        assertEquals(List.of("NEAR", "MID"), symbols);
+    }
+
+    @Test
+    void plan_UnknownPrice_IsFetchedFirst() {
+        when(rateLimiter.isEnabled()).thenReturn(false);
+        List<SymbolThresholdBounds> withNew = List.of(
+            bounds.get(0),
+            new SymbolThresholdBounds("NEW", new BigDecimal("10.00"), null)
+        );
+
+        List<String> symbols = scheduler.plan(withNew, 1, Duration.ofMinutes(5));
+
+        assertEquals("NEW", symbols.get(0));
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayQuoteProviderTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong now = new AtomicLong(5_000_000);
+
+    @Test
+    void fetchQuote_AcceleratedSpeed_ServesLatestRecordedPrice() throws Exception {
+        ReplayQuoteProvider provider = new ReplayQuoteProvider(recording(), 60, false, now::get);
+
+        assertEquals(new BigDecimal("100.00"), provider.fetchQuote("AAPL").block().price());
+
+        // One wall-clock second at 60x covers the first minute of the recording
+        now.addAndGet(1_000);
+        Quote quote = provider.fetchQuote("AAPL").block();
+
+        assertEquals(new BigDecimal("101.50"), quote.price());
+        assertEquals(Instant.ofEpochMilli(now.get()), quote.fetchedAt());
+    }
+
+    @Test
+    void fetchQuotes_PastEndWithLoop_StartsOver() throws Exception {
+        ReplayQuoteProvider provider = new ReplayQuoteProvider(recording(), 1, true, now::get);
+
+        now.addAndGet(120_001);
+        Map<String, Quote> quotes = provider.fetchQuotes(List.of("AAPL", "MSFT", "TSLA")).block();
+
+        assertEquals(new BigDecimal("100.00"), quotes.get("AAPL").price());
+        assertEquals(new BigDecimal("300.00"), quotes.get("MSFT").price());
+        assertFalse(quotes.containsKey("TSLA"));
+    }
+
+    @Test
+    void fetchQuote_UnknownSymbol_Errors() throws Exception {
+        ReplayQuoteProvider provider = new ReplayQuoteProvider(recording(), 1, false, now::get);
+
+        assertThrows(RuntimeException.class, () -> provider.fetchQuote("TSLA").block());
+    }
+
+    @Test
+    void load_NonNumericFields_SkipsLine() throws Exception {
+        Path file = dir.resolve("quotes.csv");
+        Files.writeString(file, String.join("\n",
+            "epochMillis,symbol,price",
+            "1000000,AAPL,100.00",
+            "1060000,AAPL,None",
+            ""));
+        ReplayQuoteProvider provider = new ReplayQuoteProvider(file, 60, false, now::get);
+
+        now.addAndGet(1_000);
+        assertEquals(new BigDecimal("100.00"), provider.fetchQuote("AAPL").block().price());
+    }
+
+    private Path recording() throws Exception {
+        Path file = dir.resolve("quotes.csv");
+        Files.writeString(file, String.join("\n",
+            "1060000,AAPL,101.50",
+            "1000000,AAPL,100.00",
+            "1000000,MSFT,300.00",
+            "1120000,AAPL,99.75",
+            ""));
+        return file;
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.WatchThresholdRow;
+import org.example.repository.AlertRepository;
+import org.example.repository.UserRepository;
+import org.example.repository.WatchedStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class StockMonitoringServiceTest {
+
+    private AlertRepository alertRepository;
+    private StockMonitoringService monitoringService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        ThresholdIndex thresholdIndex = new ThresholdIndex();
+        thresholdIndex.rebuild(List.of(new WatchThresholdRow(1L, 10L, "AAPL", new BigDecimal("100.00"), null)).stream());
+
+        AlertTriggerState alertTriggerState = new AlertTriggerState();
+        ReflectionTestUtils.setField(alertTriggerState, "watchedStockRepository", mock(WatchedStockRepository.class));
+        ReflectionTestUtils.setField(alertTriggerState, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(alertTriggerState, "hysteresisBand", new BigDecimal("0.01"));
+
+        alertRepository = mock(AlertRepository.class);
+        AlertService alertService = new AlertService();
+        ReflectionTestUtils.setField(alertService, "alertRepository", alertRepository);
+        ReflectionTestUtils.setField(alertService, "userRepository", mock(UserRepository.class));
+        ReflectionTestUtils.setField(alertService, "watchedStockRepository", mock(WatchedStockRepository.class));
+        ReflectionTestUtils.setField(alertService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(alertService, "unreadAlertCounter", mock(UnreadAlertCounter.class));
+        ReflectionTestUtils.setField(alertService, "eventStreamHub", mock(EventStreamHub.class));
+        ReflectionTestUtils.setField(alertService, "notificationOutbox", mock(NotificationOutbox.class));
+        ReflectionTestUtils.setField(alertService, "userDataVersions", mock(UserDataVersions.class));
+        ReflectionTestUtils.setField(alertService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(alertService, "flushChunkSize", 100);
+
+        QuoteCache quoteCache = mock(QuoteCache.class);
+        when(quoteCache.getQuotes(anyCollection()))
+            .thenReturn(Map.of("AAPL", new Quote("AAPL", new BigDecimal("99.00"), Instant.now())));
+        QuoteRequestScheduler quoteRequestScheduler = mock(QuoteRequestScheduler.class);
+        when(quoteRequestScheduler.plan(anyList(), anyInt(), any())).thenReturn(List.of("AAPL"));
+        AdaptivePollScheduler adaptivePollScheduler = mock(AdaptivePollScheduler.class);
+        when(adaptivePollScheduler.dueSymbols(anyList(), anyLong())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        monitoringService = new StockMonitoringService();
+        ReflectionTestUtils.setField(monitoringService, "thresholdIndex", thresholdIndex);
+        ReflectionTestUtils.setField(monitoringService, "alertTriggerState", alertTriggerState);
+        ReflectionTestUtils.setField(monitoringService, "alertService", alertService);
+        ReflectionTestUtils.setField(monitoringService, "quoteCache", quoteCache);
+        ReflectionTestUtils.setField(monitoringService, "quoteRequestScheduler", quoteRequestScheduler);
+        ReflectionTestUtils.setField(monitoringService, "adaptivePollScheduler", adaptivePollScheduler);
+        ReflectionTestUtils.setField(monitoringService, "stockPriceService", mock(StockPriceService.class));
+        ReflectionTestUtils.setField(monitoringService, "eventStreamHub", mock(EventStreamHub.class));
+        ReflectionTestUtils.setField(monitoringService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(monitoringService, "mode", "sequential");
+        ReflectionTestUtils.setField(monitoringService, "tickInterval", 60000L);
+        ReflectionTestUtils.setField(monitoringService, "cycleTimeout", 60000L);
+        ReflectionTestUtils.setField(monitoringService, "indexRefreshInterval", Long.MAX_VALUE);
+    }
+
+    @Test
+    void monitorStockPrices_FailedFlush_AlertsAgainNextCycle() {
+        when(alertRepository.saveAll(anyList()))
+            .thenThrow(new RuntimeException("connection reset"))
+            .thenReturn(List.of());
+
+        monitoringService.monitorStockPrices();
+        monitoringService.monitorStockPrices();
+        monitoringService.monitorStockPrices();
+
+        // Failed on the first cycle, saved on the second, and the side stays triggered after that
+        verify(alertRepository, times(2)).saveAll(anyList());
+    }
+}
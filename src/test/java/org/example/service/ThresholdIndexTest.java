@@ -0,0 +1,109 @@
+package org.example.service;
+
+import org.example.dto.SymbolThresholdBounds;
+import org.example.dto.WatchThresholdRow;
+import org.example.entity.Alert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThresholdIndexTest {
+
+    private ThresholdIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ThresholdIndex();
+        index.rebuild(List.of(
+            row(1L, 10L, "AAPL", "90.00", "110.00"),
+            row(2L, 11L, "AAPL", "95.00", null),
+            row(3L, 12L, "AAPL", null, "105.00"),
+            row(4L, 13L, "AAPL", "80.00", "150.00"),
+            row(5L, 14L, "MSFT", "300.00", "400.00")
+        ).stream());
+    }
+
+    @Test
+    void evaluate_PriceBetweenThresholds_NoTriggers() {
+        assertTrue(index.evaluate("AAPL", new BigDecimal("100.00")).isEmpty());
+    }
+
+    @Test
+    void evaluate_PriceFalls_TriggersEveryMinThresholdAtOrAbovePrice() {
+        List<ThresholdIndex.Trigger> triggers = index.evaluate("AAPL", new BigDecimal("90.00"));
+
+        assertEquals(Set.of(1L, 2L), watchIds(triggers));
+        assertTrue(triggers.stream().allMatch(t -> t.type() == Alert.AlertType.MIN_PRICE_EXCEEDED));
+    }
+
+    @Test
+    void evaluate_PriceRises_TriggersEveryMaxThresholdAtOrBelowPrice() {
+        List<ThresholdIndex.Trigger> triggers = index.evaluate("AAPL", new BigDecimal("112.5"));
+
+        assertEquals(Set.of(1L, 3L), watchIds(triggers));
+        assertTrue(triggers.stream().allMatch(t -> t.type() == Alert.AlertType.MAX_PRICE_EXCEEDED));
+        assertEquals(0, new BigDecimal("105.00").compareTo(
+            triggers.stream().filter(t -> t.watchId() == 3L).findFirst().orElseThrow().threshold()));
+    }
+
+    @Test
+    void evaluate_UnknownSymbol_NoTriggers() {
+        assertTrue(index.evaluate("TSLA", new BigDecimal("1.00")).isEmpty());
+    }
+
+    @Test
+    void upsert_MovedThreshold_ReplacesPreviousEntry() {
+        index.upsert(row(2L, 11L, "AAPL", "99.00", null));
+
+        assertEquals(Set.of(2L), watchIds(index.evaluate("AAPL", new BigDecimal("98.00"))));
+        assertEquals(4, index.watchCount("AAPL"));
+    }
+
+    @Test
+    void remove_LastWatchOfSymbol_DropsSymbol() {
+        index.remove("MSFT", 5L);
+
+        assertEquals(0, index.watchCount("MSFT"));
+        assertTrue(index.symbolBounds().stream().noneMatch(b -> b.getSymbol().equals("MSFT")));
+    }
+
+    @Test
+    void symbolBounds_ReturnsHighestMinAndLowestMax() {
+        SymbolThresholdBounds bounds = index.symbolBounds().stream()
+                .filter(b -> b.getSymbol().equals("AAPL"))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(0, new BigDecimal("95.00").compareTo(bounds.getHighestMinPrice()));
+        assertEquals(0, new BigDecimal("105.00").compareTo(bounds.getLowestMaxPrice()));
+    }
+
+    @Test
+    void rebuild_SymbolSplitAcrossStream_MergesEntries() {
+        int count = index.rebuild(List.of(
+            row(1L, 10L, "AAPL", "90.00", null),
+            row(5L, 14L, "MSFT", "300.00", null),
+            row(2L, 11L, "AAPL", "95.00", null)
+        ).stream());
+
+        assertEquals(3, count);
+        assertEquals(2, index.watchCount("AAPL"));
+        assertEquals(Set.of(1L, 2L), watchIds(index.evaluate("AAPL", new BigDecimal("89.00"))));
+    }
+
+    private static WatchThresholdRow row(Long watchId, Long userId, String symbol, String min, String max) {
+        return new WatchThresholdRow(watchId, userId, symbol,
+            min == null ? null : new BigDecimal(min),
+            max == null ? null : new BigDecimal(max));
+    }
+
+    private static Set<Long> watchIds(List<ThresholdIndex.Trigger> triggers) {
+        return triggers.stream().map(ThresholdIndex.Trigger::watchId).collect(Collectors.toSet());
+    }
+}
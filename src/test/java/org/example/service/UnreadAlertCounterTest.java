@@ -0,0 +1,97 @@
+package org.example.service;
+
+import org.example.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UnreadAlertCounterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EventStreamHub eventStreamHub;
+
+    @InjectMocks
+    private UnreadAlertCounter counter;
+
+    @Test
+    void get_LoadsFromColumnOnceThenServesFromMemory() {
+        when(userRepository.findUnreadAlertCount(1L)).thenReturn(Optional.of(3L));
+
+        assertEquals(3, counter.get(1L));
+        assertEquals(3, counter.get(1L));
+        verify(userRepository, times(1)).findUnreadAlertCount(1L);
+    }
+
+    @Test
+    void alertsCreatedAndRead_UpdateColumnAndPushReloadedCount() {
+        when(userRepository.findUnreadAlertCount(1L)).thenReturn(Optional.of(3L), Optional.of(7L), Optional.of(5L));
+        when(eventStreamHub.connectedUsers()).thenReturn(Set.of(1L));
+        counter.get(1L);
+
+        counter.alertsCreated(Map.of(1L, 4, 2L, 1));
+        counter.alertsRead(1L, 2);
+
+        assertEquals(5, counter.get(1L));
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        verify(userRepository).addUnreadAlertCount(1L, -2);
+        verify(eventStreamHub).publishUnreadCount(1L, 7);
+        verify(eventStreamHub).publishUnreadCount(1L, 5);
+        verify(eventStreamHub, never()).publishUnreadCount(eq(2L), anyLong());
+        verify(userRepository, never()).findUnreadAlertCount(2L);
+    }
+
+    @Test
+    void get_LoadedBetweenCommitAndAfterCommit_CountsChangeOnce() {
+        // The column already includes the 4 new alerts when the reader loads it
+        when(userRepository.findUnreadAlertCount(1L)).thenReturn(Optional.of(7L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            counter.alertsCreated(Map.of(1L, 4));
+            assertEquals(7, CompletableFuture.supplyAsync(() -> counter.get(1L)).join());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(7, counter.get(1L));
+    }
+
+    @Test
+    void get_ChangeCommittedDuringLoad_StaleCountNotKept() {
+        when(userRepository.findUnreadAlertCount(1L))
+            .thenAnswer(invocation -> {
+                // Another request commits a read while this load is in flight
+                counter.alertsRead(1L, 1);
+                return Optional.of(3L);
+            })
+            .thenReturn(Optional.of(2L));
+
+        assertEquals(3, counter.get(1L));
+        assertEquals(2, counter.get(1L));
+        assertEquals(2, counter.get(1L));
+        verify(userRepository, times(2)).findUnreadAlertCount(1L);
+    }
+}
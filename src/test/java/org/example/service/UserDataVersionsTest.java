@@ -0,0 +1,54 @@
+package org.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDataVersionsTest {
+
+    private UserDataVersions versions;
+
+    @BeforeEach
+    void setUp() {
+        versions = new UserDataVersions();
+        ReflectionTestUtils.setField(versions, "maxUsers", 100L);
+        versions.init();
+    }
+
+    @Test
+    void watchlistChanged_NewVersionOnlyAfterCommit() {
+        long before = versions.watchlist(1L);
+        long other = versions.watchlist(2L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            versions.watchlistChanged(1L);
+            assertEquals(before, versions.watchlist(1L));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNotEquals(before, versions.watchlist(1L));
+        assertEquals(other, versions.watchlist(2L));
+    }
+
+    @Test
+    void allAlertsChanged_EveryUserGetsNewVersion() {
+        long first = versions.alerts(1L);
+        long second = versions.alerts(2L);
+        versions.alertsChanged(1L);
+        long changed = versions.alerts(1L);
+        assertNotEquals(first, changed);
+        assertEquals(second, versions.alerts(2L));
+
+        versions.allAlertsChanged();
+
+        assertNotEquals(changed, versions.alerts(1L));
+        assertNotEquals(second, versions.alerts(2L));
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.example.dto.BulkWatchlistResponse;
+import org.example.dto.BulkWatchlistRowResult;
+import org.example.dto.WatchedStockRequest;
+import org.example.dto.WatchedStockResponse;
+import org.example.entity.User;
+import org.example.entity.WatchedStock;
+import org.example.repository.UserRepository;
+import org.example.repository.WatchedStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WatchedStockServiceTest {
+
+    @Mock
+    private WatchedStockRepository watchedStockRepository;
+
+    @Mock
+    private ThresholdIndex thresholdIndex;
+
+    @Mock
+    private AlertTriggerState alertTriggerState;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private QuoteCache quoteCache;
+
+    @Mock
+    private EventStreamHub eventStreamHub;
+
+    @Mock
+    private UserDataVersions userDataVersions;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private WatchedStockService watchedStockService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("alice", "alice@example.com", "hash");
+        user.setId(7L);
+        ReflectionTestUtils.setField(watchedStockService, "validator",
+            Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(watchedStockService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(watchedStockService, "bulkMaxEntries", 100);
+        ReflectionTestUtils.setField(watchedStockService, "cacheMaxEntries", 100L);
+        ReflectionTestUtils.setField(watchedStockService, "cacheTtl", 60000L);
+        watchedStockService.init();
+    }
+
+    @Test
+    void updateWatchedStock_RemovedWatch_NotFoundAndNotIndexed() {
+        WatchedStock removed = new WatchedStock("AAPL", new BigDecimal("100"), new BigDecimal("200"), user);
+        removed.setId(1L);
+        removed.setActive(false);
+        when(watchedStockRepository.findById(1L)).thenReturn(Optional.of(removed));
+
+        assertThrows(RuntimeException.class, () -> watchedStockService.updateWatchedStock(1L,
+            new WatchedStockRequest("AAPL", new BigDecimal("90"), new BigDecimal("210")), 7L));
+
+        verify(watchedStockRepository, never()).save(any());
+        verifyNoInteractions(thresholdIndex, alertTriggerState);
+    }
+
+    @Test
+    void addWatchedStock_RemovedSymbolInOtherCase_Reactivated() {
+        WatchedStock removed = new WatchedStock("IBM", null, null, user);
+        removed.setId(3L);
+        removed.setActive(false);
+        removed.setMaxAlertTriggered(true);
+        when(watchedStockRepository.findByUserIdAndSymbol(7L, "IBM")).thenReturn(Optional.of(removed));
+        when(watchedStockRepository.save(removed)).thenReturn(removed);
+
+        WatchedStockResponse response = watchedStockService.addWatchedStock(
+            new WatchedStockRequest("ibm", null, new BigDecimal("250")), 7L);
+
+        assertEquals(3L, response.getId());
+        assertTrue(removed.isActive());
+        assertFalse(removed.isMaxAlertTriggered());
+        assertEquals(new BigDecimal("250"), removed.getMaxPrice());
+        verify(alertTriggerState).reset("IBM", 3L);
+        verify(eventStreamHub).watchAdded(7L, "IBM");
+        verify(userRepository, never()).getReferenceById(any());
+    }
+
+    @Test
+    void importWatchedStocks_ReportsEachRow() {
+        WatchedStock existing = new WatchedStock("AAPL", new BigDecimal("100"), new BigDecimal("200"), user);
+        existing.setId(1L);
+        stubImport(existing);
+
+        BulkWatchlistResponse response = watchedStockService.importWatchedStocks(Arrays.asList(
+            new WatchedStockRequest("AAPL", new BigDecimal("120"), new BigDecimal("180")),
+            new WatchedStockRequest("msft", null, null),
+            new WatchedStockRequest("TOOLONG", null, null),
+            new WatchedStockRequest("ibm", new BigDecimal("5"), new BigDecimal("1")),
+            new WatchedStockRequest("MSFT", null, null),
+            null), 7L);
+
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getUpdated());
+        assertEquals(4, response.getFailed());
+        List<BulkWatchlistRowResult> results = response.getResults();
+        assertEquals(BulkWatchlistRowResult.Status.UPDATED, results.get(0).getStatus());
+        assertEquals(new BigDecimal("180"), existing.getMaxPrice());
+        assertEquals(BulkWatchlistRowResult.Status.CREATED, results.get(1).getStatus());
+        assertEquals("MSFT", results.get(1).getSymbol());
+        assertEquals(BulkWatchlistRowResult.Status.FAILED, results.get(2).getStatus());
+        assertEquals("Minimum price must be less than maximum price", results.get(3).getError());
+        assertEquals("Duplicate of row 2", results.get(4).getError());
+        assertEquals("Empty entry", results.get(5).getError());
+        verify(alertTriggerState).reset("AAPL", 1L);
+        verify(userDataVersions).watchlistChanged(7L);
+    }
+
+    @Test
+    void importCsv_ReportsLineNumbers() {
+        WatchedStock existing = new WatchedStock("IBM", null, null, user);
+        existing.setId(2L);
+        existing.setActive(false);
+        stubImport(existing);
+
+        BulkWatchlistResponse response = watchedStockService.importCsv(
+            "symbol,minPrice,maxPrice\nmsft,300,400\n\nGOOG,abc,\n\"IBM\",\"\",\"250\"\nTSLA,\"1\n", 7L);
+
+        List<BulkWatchlistRowResult> results = response.getResults();
+        assertEquals(4, results.size());
+        assertEquals(2, results.get(0).getRow());
+        assertEquals(BulkWatchlistRowResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(4, results.get(1).getRow());
+        assertEquals("Prices must be numbers", results.get(1).getError());
+        assertEquals(5, results.get(2).getRow());
+        assertEquals(BulkWatchlistRowResult.Status.UPDATED, results.get(2).getStatus());
+        assertTrue(existing.isActive());
+        assertEquals(new BigDecimal("250"), existing.getMaxPrice());
+        assertEquals("Unterminated quoted field", results.get(3).getError());
+        verify(eventStreamHub).watchAdded(7L, "IBM");
+    }
+
+    private void stubImport(WatchedStock existing) {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(watchedStockRepository.findByUserIdAndSymbolIn(eq(7L), anyCollection()))
+            .thenReturn(new ArrayList<>(List.of(existing)));
+        when(userRepository.getReferenceById(7L)).thenReturn(user);
+    }
+
+    @Test
+    void splitCsvLine_QuotedFields_KeepCommasAndQuotes() {
+        assertArrayEquals(new String[] {"BRK.B", "1,000.50", "say \"hi\"", ""},
+            WatchedStockService.splitCsvLine("BRK.B,\"1,000.50\",\"say \"\"hi\"\"\","));
+        assertNull(WatchedStockService.splitCsvLine("AAPL,\"100"));
+    }
+}